@@ -0,0 +1,474 @@
+package DungeonCrawler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Autosave as a full checkpoint (a {@link SaveFile}) plus an append-only
+ * journal of what changed each turn since: tiles that changed or were
+ * explored, the key, enemy slots that moved or were hurt, the player's
+ * stats, the drops on the floor and the action counters. Tile visit times, which
+ * only feed the story, come from the checkpoint. A typical turn costs a few
+ * dozen bytes. Every {@link #DEFAULT_COMPACTION_INTERVAL} entries, and on
+ * every level change, the state is folded into a new checkpoint and the
+ * journal starts over.
+ *
+ * Journal layout: magic, version and the CRC of the checkpoint it follows,
+ * then one frame per turn (varint length, records, CRC-32). Recovery loads
+ * the checkpoint and applies frames up to the first torn or damaged one; a
+ * journal left over from an older checkpoint is ignored.
+ *
+ * {@link #afterStep} only compares against a copy of what was last logged
+ * and queues the bytes; files are written on a background thread. Frames are
+ * not forced to disk one by one, so a process crash loses nothing but a
+ * power cut can lose the turns since the last checkpoint.
+ */
+public class AutosaveJournal implements TileChangeListener {
+    static final int MAGIC = 0x44434A4C; // "DCJL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 9;
+    public static final int DEFAULT_COMPACTION_INTERVAL = 256;
+
+    private static final int REC_PLAYER = 1;
+    private static final int REC_TILE = 2;
+    private static final int REC_ENEMY = 3;
+    private static final int REC_ENEMY_COUNT = 4;
+    private static final int REC_DROPS = 5;
+    private static final int REC_ACTION = 6;
+    private static final int REC_KEY = 7;
+
+    private final Path checkpointPath;
+    private final Path journalPath;
+    private final int compactionInterval;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autosave-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel; // only touched on the writer thread
+
+    // What the journal has logged so far; only touched on the game thread
+    private DungeonMap map;
+    private int level;
+    private int entries;
+    private int[] dirtyTiles = new int[64];
+    private int dirtyCount;
+    private byte[] player = new byte[0];
+    private byte[] drops = new byte[0];
+    private int[] enemyX = new int[16];
+    private int[] enemyY = new int[16];
+    private int[] enemyHealth = new int[16];
+    private boolean[] enemyBoss = new boolean[16];
+    private int enemyCount;
+    private int keyX;
+    private int keyY;
+    private final Map<String, Integer> actions = new HashMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private long bytesLogged;
+
+    public AutosaveJournal(Path checkpointPath, Path journalPath) {
+        this(checkpointPath, journalPath, DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    public AutosaveJournal(Path checkpointPath, Path journalPath, int compactionInterval) {
+        if (compactionInterval <= 0) {
+            throw new IllegalArgumentException("Compaction interval must be positive");
+        }
+        this.checkpointPath = checkpointPath;
+        this.journalPath = journalPath;
+        this.compactionInterval = compactionInterval;
+    }
+
+    /** Logs what changed during the turn just played, or checkpoints if it is time to. */
+    public void afterStep(GameState state) {
+        if (state.dungeonMap == null) return;
+        if (state.dungeonMap != map || state.currentLevel != level || entries >= compactionInterval) {
+            checkpoint(state);
+            return;
+        }
+
+        ByteBuffer frame = encodeChanges(state);
+        if (frame == null) return;
+        entries++;
+        bytesLogged += frame.remaining();
+        writer.execute(() -> append(frame));
+    }
+
+    /** Starts over from a full checkpoint of {@code state}, written in the background. */
+    public void checkpoint(GameState state) {
+        if (map != null) {
+            map.removeTileChangeListener(this);
+        }
+        map = state.dungeonMap;
+        if (map != null) {
+            map.addTileChangeListener(this);
+        }
+        level = state.currentLevel;
+        dirtyCount = 0;
+        entries = 0;
+        player = encodeSmall(state, true);
+        drops = encodeSmall(state, false);
+        enemyCount = 0;
+        if (state.enemies != null) {
+            for (int i = 0; i < state.enemies.size(); i++) {
+                rememberEnemy(i, state.enemies);
+            }
+            enemyCount = state.enemies.size();
+        }
+        actions.clear();
+        if (map != null) {
+            actions.putAll(map.getActionCounts());
+            keyX = map.getKeyX();
+            keyY = map.getKeyY();
+        }
+
+        GameState snapshot = state.snapshot();
+        writer.execute(() -> compact(snapshot));
+    }
+
+    @Override
+    public void onTileChanged(int x, int y) {
+        if (dirtyCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        }
+        dirtyTiles[dirtyCount++] = x * map.getHeight() + y;
+    }
+
+    /** Bytes of journal frames queued since this journal was created. */
+    public long getBytesLogged() {
+        return bytesLogged;
+    }
+
+    /** Blocks until everything queued so far is written. */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (Exception e) {
+            System.err.println("Error flushing autosave: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops logging. With {@code discard} the autosave files are removed, as
+     * after a clean exit; otherwise they stay for {@link #recover}.
+     */
+    public void close(boolean discard) {
+        if (map != null) {
+            map.removeTileChangeListener(this);
+            map = null;
+        }
+        writer.execute(() -> {
+            closeChannel();
+            if (discard) {
+                try {
+                    Files.deleteIfExists(journalPath);
+                    Files.deleteIfExists(checkpointPath);
+                } catch (IOException e) {
+                    System.err.println("Error removing autosave: " + e.getMessage());
+                }
+            }
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Autosave did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ByteBuffer encodeChanges(GameState state) {
+        byte[] currentPlayer = encodeSmall(state, true);
+        byte[] currentDrops = encodeSmall(state, false);
+        EnemyPool enemies = state.enemies;
+        int liveEnemies = enemies != null ? enemies.size() : 0;
+        Map<String, Integer> currentActions = map.getActionCounts();
+
+        int bound = 10 + 11 + currentPlayer.length + currentDrops.length + 2 + dirtyCount * 7 + liveEnemies * 22 + 6;
+        for (String action : currentActions.keySet()) {
+            bound += 1 + 2 + 3 * action.length() + 5;
+        }
+        ByteBuffer out = scratch(bound);
+        out.position(5);
+
+        if (!Arrays.equals(player, currentPlayer)) {
+            out.put((byte) REC_PLAYER).put(currentPlayer);
+            player = currentPlayer;
+        }
+        if (!Arrays.equals(drops, currentDrops)) {
+            out.put((byte) REC_DROPS).put(currentDrops);
+            drops = currentDrops;
+        }
+        if (map.getKeyX() != keyX || map.getKeyY() != keyY) {
+            keyX = map.getKeyX();
+            keyY = map.getKeyY();
+            out.put((byte) REC_KEY);
+            SaveFile.putVarLong(out, SaveFile.zigZag(keyX));
+            SaveFile.putVarLong(out, SaveFile.zigZag(keyY));
+        }
+        int height = map.getHeight();
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirtyTiles[i];
+            int x = index / height;
+            int y = index % height;
+            out.put((byte) REC_TILE);
+            SaveFile.putVarLong(out, index);
+            out.put((byte) (map.getTileType(x, y).ordinal() | (map.isExplored(x, y) ? 8 : 0)));
+        }
+        dirtyCount = 0;
+
+        for (int i = 0; i < liveEnemies; i++) {
+            if (i < enemyCount && enemyX[i] == enemies.getX(i) && enemyY[i] == enemies.getY(i)
+                    && enemyHealth[i] == enemies.getHealth(i) && enemyBoss[i] == enemies.isBoss(i)) {
+                continue;
+            }
+            rememberEnemy(i, enemies);
+            out.put((byte) REC_ENEMY);
+            SaveFile.putVarLong(out, i);
+            SaveFile.putVarLong(out, enemies.getX(i));
+            SaveFile.putVarLong(out, enemies.getY(i));
+            SaveFile.putVarLong(out, SaveFile.zigZag(enemies.getHealth(i)));
+            out.put((byte) (enemies.isBoss(i) ? 1 : 0));
+        }
+        if (liveEnemies != enemyCount) {
+            out.put((byte) REC_ENEMY_COUNT);
+            SaveFile.putVarLong(out, liveEnemies);
+            enemyCount = liveEnemies;
+        }
+
+        for (Map.Entry<String, Integer> entry : currentActions.entrySet()) {
+            if (entry.getValue().equals(actions.get(entry.getKey()))) continue;
+            actions.put(entry.getKey(), entry.getValue());
+            out.put((byte) REC_ACTION);
+            SaveFile.putString(out, entry.getKey());
+            SaveFile.putVarLong(out, entry.getValue());
+        }
+
+        int payloadLength = out.position() - 5;
+        if (payloadLength == 0) return null;
+
+        // Frame: varint length (written right before the payload), payload, CRC
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 5, payloadLength);
+        out.putInt((int) crc.getValue());
+        ByteBuffer lengthPrefix = ByteBuffer.allocate(5);
+        SaveFile.putVarLong(lengthPrefix, payloadLength);
+        int prefixLength = lengthPrefix.position();
+        System.arraycopy(lengthPrefix.array(), 0, out.array(), 5 - prefixLength, prefixLength);
+        return ByteBuffer.wrap(Arrays.copyOfRange(out.array(), 5 - prefixLength, out.position()));
+    }
+
+    private ByteBuffer scratch(int size) {
+        if (scratch.capacity() < size + 4) {
+            scratch = ByteBuffer.allocate(Math.max(size + 4, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        return scratch;
+    }
+
+    private static byte[] encodeSmall(GameState state, boolean playerSection) {
+        ByteBuffer out = ByteBuffer.allocate(playerSection ? SaveFile.MAX_PLAYER_SIZE : SaveFile.maxDropsSize(state));
+        if (playerSection) {
+            SaveFile.writePlayer(out, state);
+        } else {
+            SaveFile.writeDrops(out, state);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private void rememberEnemy(int slot, EnemyPool enemies) {
+        if (slot >= enemyX.length) {
+            int capacity = Math.max(slot + 1, enemyX.length * 2);
+            enemyX = Arrays.copyOf(enemyX, capacity);
+            enemyY = Arrays.copyOf(enemyY, capacity);
+            enemyHealth = Arrays.copyOf(enemyHealth, capacity);
+            enemyBoss = Arrays.copyOf(enemyBoss, capacity);
+        }
+        enemyX[slot] = enemies.getX(slot);
+        enemyY[slot] = enemies.getY(slot);
+        enemyHealth[slot] = enemies.getHealth(slot);
+        enemyBoss[slot] = enemies.isBoss(slot);
+    }
+
+    // Writer thread
+
+    private void compact(GameState snapshot) {
+        try {
+            ByteBuffer data = SaveFile.encode(snapshot);
+            int checkpointCrc = data.getInt(12);
+            SaveFile.writeAtomically(checkpointPath, data);
+
+            closeChannel();
+            Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+            try (FileChannel fresh = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).put((byte) VERSION).putInt(checkpointCrc).flip();
+                while (header.hasRemaining()) {
+                    fresh.write(header);
+                }
+                fresh.force(true);
+            }
+            SaveFile.replace(temp, journalPath);
+            channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (Exception e) {
+            System.err.println("Error writing autosave checkpoint: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void append(ByteBuffer frame) {
+        if (channel == null) return;
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing autosave journal: " + e.getMessage());
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing autosave journal: " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    // Recovery
+
+    /**
+     * Loads the checkpoint into {@code state} and replays the journal after
+     * it. Returns the number of journal frames applied, or -1 if there is no
+     * checkpoint to recover.
+     */
+    public static int recover(GameState state, Path checkpointPath, Path journalPath, long loadTime)
+            throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return -1;
+        }
+        ByteBuffer checkpoint = SaveFile.readFully(checkpointPath);
+        SaveFile.decode(checkpoint, state, loadTime);
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+
+        ByteBuffer in = SaveFile.readFully(journalPath);
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.get() != VERSION
+                || in.getInt() != checkpoint.getInt(12)) {
+            // Torn header, or a journal the checkpoint has already absorbed
+            return 0;
+        }
+
+        DungeonMap map = state.dungeonMap;
+        EnemyPool enemies = state.enemies;
+        int count = enemies.size();
+        int[] xs = new int[Math.max(16, count)];
+        int[] ys = new int[xs.length];
+        int[] health = new int[xs.length];
+        boolean[] boss = new boolean[xs.length];
+        for (int i = 0; i < count; i++) {
+            xs[i] = enemies.getX(i);
+            ys[i] = enemies.getY(i);
+            health[i] = enemies.getHealth(i);
+            boss[i] = enemies.isBoss(i);
+        }
+
+        int frames = 0;
+        try {
+            while (in.hasRemaining()) {
+                int length = (int) SaveFile.getVarLong(in);
+                if (length <= 0 || length + 4 > in.remaining()) break;
+                ByteBuffer payload = in.slice();
+                payload.limit(length);
+                in.position(in.position() + length);
+                int expectedCrc = in.getInt();
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) break;
+
+                while (payload.hasRemaining()) {
+                    int tag = payload.get();
+                    switch (tag) {
+                        case REC_PLAYER:
+                            SaveFile.readPlayer(payload, state);
+                            break;
+                        case REC_DROPS:
+                            SaveFile.readDrops(payload, state, loadTime);
+                            break;
+                        case REC_TILE: {
+                            int index = (int) SaveFile.getVarLong(payload);
+                            int value = payload.get();
+                            int x = index / map.getHeight();
+                            int y = index % map.getHeight();
+                            map.setTileType(x, y, TileType.values()[value & 7]);
+                            if ((value & 8) != 0 && !map.isExplored(x, y)) {
+                                map.recordRoomVisit(x, y, loadTime);
+                            }
+                            break;
+                        }
+                        case REC_KEY:
+                            map.setKeyPosition((int) SaveFile.unZigZag(SaveFile.getVarLong(payload)),
+                                    (int) SaveFile.unZigZag(SaveFile.getVarLong(payload)));
+                            break;
+                        case REC_ENEMY: {
+                            int slot = (int) SaveFile.getVarLong(payload);
+                            if (slot >= xs.length) {
+                                int capacity = Math.max(slot + 1, xs.length * 2);
+                                xs = Arrays.copyOf(xs, capacity);
+                                ys = Arrays.copyOf(ys, capacity);
+                                health = Arrays.copyOf(health, capacity);
+                                boss = Arrays.copyOf(boss, capacity);
+                            }
+                            xs[slot] = (int) SaveFile.getVarLong(payload);
+                            ys[slot] = (int) SaveFile.getVarLong(payload);
+                            health[slot] = (int) SaveFile.unZigZag(SaveFile.getVarLong(payload));
+                            boss[slot] = payload.get() != 0;
+                            count = Math.max(count, slot + 1);
+                            break;
+                        }
+                        case REC_ENEMY_COUNT:
+                            count = (int) SaveFile.getVarLong(payload);
+                            break;
+                        case REC_ACTION: {
+                            String action = SaveFile.getString(payload);
+                            map.setActionCount(action, (int) SaveFile.getVarLong(payload));
+                            break;
+                        }
+                        default:
+                            throw new IllegalArgumentException("Unknown journal record " + tag);
+                    }
+                }
+                frames++;
+            }
+        } catch (RuntimeException e) {
+            // A frame that passed its CRC but does not parse; keep what was applied before it
+            System.err.println("Autosave journal damaged after " + frames + " turns: " + e.getMessage());
+        }
+
+        enemies.clear();
+        for (int i = 0; i < count; i++) {
+            enemies.add(new Enemy(xs[i], ys[i], health[i], boss[i])).enterOccupancy(map.getOccupancy());
+        }
+        state.storyTeller = new StoryTeller(map);
+        state.storyTeller.onTileEntered(state.playerX, state.playerY, loadTime);
+        return frames;
+    }
+}
@@ -0,0 +1,180 @@
+package DungeonCrawler;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The original generator: a depth-first corridor maze with rectangular rooms
+ * dropped on top and joined to the nearest corridor tile.
+ */
+public class BacktrackerGenerationStrategy implements DungeonGenerationStrategy {
+    private Random random;
+    private int width;
+    private int height;
+    private NearestFloorIndex floorIndex;
+
+    @Override
+    public void generate(TileType[][] map, Random random) {
+        this.random = random;
+        this.width = map.length;
+        this.height = map[0].length;
+
+        // Carve initial paths starting from center
+        carve(map, width / 2, height / 2);
+        floorIndex = new NearestFloorIndex(map);
+        // Add rooms to the map
+        addRooms(map, 5 + random.nextInt(5));
+    }
+
+    /**
+     * Carves corridors with a depth-first backtracker. The traversal keeps its
+     * own frame stack instead of recursing, so large maps cannot overflow the
+     * thread stack, while tiles are visited (and the random directions drawn)
+     * in exactly the same order as the original recursive version.
+     */
+    private void carve(TileType[][] map, int startX, int startY) {
+        try {
+            if (!canCarve(map, startX, startY)) return;
+
+            int capacity = 64;
+            int[] stackX = new int[capacity];
+            int[] stackY = new int[capacity];
+            int[] stackDirs = new int[capacity * 4];
+            int[] stackNext = new int[capacity];
+            int top = 0;
+
+            map[startX][startY] = TileType.FLOOR;
+            stackX[0] = startX;
+            stackY[0] = startY;
+            pushDirections(stackDirs, 0);
+            stackNext[0] = 0;
+
+            while (top >= 0) {
+                if (stackNext[top] == 4) {
+                    top--;
+                    continue;
+                }
+
+                int dir = stackDirs[top * 4 + stackNext[top]];
+                stackNext[top]++;
+
+                int x = stackX[top];
+                int y = stackY[top];
+                switch (dir) {
+                    case 0: x++; break;
+                    case 1: x--; break;
+                    case 2: y++; break;
+                    case 3: y--; break;
+                }
+
+                if (!canCarve(map, x, y)) continue;
+                map[x][y] = TileType.FLOOR;
+
+                top++;
+                if (top == capacity) {
+                    capacity *= 2;
+                    stackX = Arrays.copyOf(stackX, capacity);
+                    stackY = Arrays.copyOf(stackY, capacity);
+                    stackDirs = Arrays.copyOf(stackDirs, capacity * 4);
+                    stackNext = Arrays.copyOf(stackNext, capacity);
+                }
+                stackX[top] = x;
+                stackY[top] = y;
+                pushDirections(stackDirs, top);
+                stackNext[top] = 0;
+            }
+        } catch (Exception e) {
+            System.err.println("Error carving map from (" + startX + "," + startY + "): " + e.getMessage());
+        }
+    }
+
+    private boolean canCarve(TileType[][] map, int x, int y) {
+        if (x <= 0 || x >= width - 1 || y <= 0 || y >= height - 1) return false;
+        if (map[x][y] != TileType.WALL) return false;
+
+        // Count adjacent floor tiles
+        int adjacent = 0;
+        if (map[x + 1][y] == TileType.FLOOR) adjacent++;
+        if (map[x - 1][y] == TileType.FLOOR) adjacent++;
+        if (map[x][y + 1] == TileType.FLOOR) adjacent++;
+        if (map[x][y - 1] == TileType.FLOOR) adjacent++;
+
+        return adjacent <= 1; // Prevent over-carving
+    }
+
+    private void pushDirections(int[] stackDirs, int frame) {
+        // Randomize direction order
+        int base = frame * 4;
+        for (int i = 0; i < 4; i++) {
+            stackDirs[base + i] = i;
+        }
+        shuffleArray(stackDirs, base, 4);
+    }
+
+    private void addRooms(TileType[][] map, int roomCount) {
+        try {
+            for (int i = 0; i < roomCount; i++) {
+                int roomWidth = 5 + random.nextInt(3);
+                int roomHeight = 5 + random.nextInt(3);
+                int x = 1 + random.nextInt(width - roomWidth - 2);
+                int y = 1 + random.nextInt(height - roomHeight - 2);
+
+                // Carve room
+                for (int rx = x; rx < x + roomWidth; rx++) {
+                    for (int ry = y; ry < y + roomHeight; ry++) {
+                        floorIndex.set(rx, ry, TileType.ROOM);
+                    }
+                }
+
+                // Connect room to nearest corridor
+                connectRoom(map, x + roomWidth / 2, y + roomHeight / 2);
+            }
+        } catch (Exception e) {
+            System.err.println("Error adding rooms: " + e.getMessage());
+        }
+    }
+
+    private void connectRoom(TileType[][] map, int roomX, int roomY) {
+        try {
+            // Find nearest floor tile
+            int[] nearest = floorIndex.findNearest(roomX, roomY);
+            int nearestX = nearest != null ? nearest[0] : roomX;
+            int nearestY = nearest != null ? nearest[1] : roomY;
+
+            // Carve path from room to nearest floor
+            int currentX = roomX;
+            int currentY = roomY;
+            while (currentX != nearestX || currentY != nearestY) {
+                if (currentX < nearestX) {
+                    currentX++;
+                } else if (currentX > nearestX) {
+                    currentX--;
+                } else if (currentY < nearestY) {
+                    currentY++;
+                } else if (currentY > nearestY) {
+                    currentY--;
+                }
+                if (currentX >= 0 && currentX < width && currentY >= 0 && currentY < height) {
+                    if (map[currentX][currentY] != TileType.ROOM) {
+                        floorIndex.set(currentX, currentY, TileType.FLOOR);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error connecting room at (" + roomX + "," + roomY + "): " + e.getMessage());
+        }
+    }
+
+    private void shuffleArray(int[] array, int offset, int length) {
+        try {
+            for (int i = length - 1; i > 0; i--) {
+                int index = offset + random.nextInt(i + 1);
+                int temp = array[index];
+                array[index] = array[offset + i];
+                array[offset + i] = temp;
+            }
+        } catch (Exception e) {
+            System.err.println("Error shuffling array: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package DungeonCrawler;
+
+import java.util.Random;
+
+/**
+ * A scripted player for balance runs. Each turn it drinks a potion when
+ * hurt, fires at any enemy in a straight line within range, and otherwise
+ * walks the shortest path to its current objective: enemies and loot until
+ * the key appears, then the key, then the level door.
+ */
+public class BalanceBot {
+    private static final int POTION_THRESHOLD = 40;
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    private static final Command[] MOVES = {Command.MOVE_UP, Command.MOVE_DOWN, Command.MOVE_LEFT, Command.MOVE_RIGHT};
+    private static final char[] FACING = {'W', 'S', 'A', 'D'};
+
+    private final GameState state;
+    private final Random random;
+    private int[] queue = new int[0];
+    private int[] firstStep = new int[0];
+    private int[] visited = new int[0];
+    /** Cells holding loot in the current search: equal to {@link #generation}. */
+    private int[] dropMark = new int[0];
+    private int generation;
+
+    public BalanceBot(GameState state) {
+        this.state = state;
+        this.random = new Random(~state.getSeed());
+    }
+
+    public Command next() {
+        if (state.getPlayerHealth() < POTION_THRESHOLD && state.getPlayerHealthPotions() > 0) {
+            return Command.USE_POTION;
+        }
+
+        int fire = findLineOfFire();
+        if (fire >= 0) {
+            // Moving toward an adjacent enemy is blocked, which just turns to face it
+            return state.getLastDirection() == FACING[fire] ? Command.FIREBALL : MOVES[fire];
+        }
+
+        // Once the key is out, enemies are only fought if they block the way
+        int step = findPath(!state.hasKey());
+        if (step < 0 && state.hasKey()) {
+            step = findPath(true);
+        }
+        return step >= 0 ? MOVES[step] : MOVES[random.nextInt(4)];
+    }
+
+    private int findLineOfFire() {
+        DungeonMap map = state.getDungeonMap();
+        OccupancyGrid occupancy = map.getOccupancy();
+        for (int dir = 0; dir < 4; dir++) {
+            for (int i = 1; i <= GameEngine.FIREBALL_RANGE; i++) {
+                int x = state.getPlayerX() + DX[dir] * i;
+                int y = state.getPlayerY() + DY[dir] * i;
+                if (x < 0 || y < 0 || x >= map.getWidth() || y >= map.getHeight()
+                        || map.getTileType(x, y) == TileType.WALL) {
+                    break;
+                }
+                if (occupancy.isOccupied(x, y)) {
+                    return dir;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Breadth-first search to the nearest objective; returns the first step's direction or -1. */
+    private int findPath(boolean huntEnemies) {
+        DungeonMap map = state.getDungeonMap();
+        int width = map.getWidth();
+        int height = map.getHeight();
+        int size = width * height;
+        if (queue.length < size) {
+            queue = new int[size];
+            firstStep = new int[size];
+            visited = new int[size];
+            dropMark = new int[size];
+            generation = 0;
+        }
+        generation++;
+        if (!state.hasKey()) {
+            markDrops(state.getGoldDrops(), height);
+            markDrops(state.getHealthPotions(), height);
+        }
+
+        OccupancyGrid occupancy = map.getOccupancy();
+        int start = state.getPlayerX() * height + state.getPlayerY();
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        visited[start] = generation;
+        firstStep[start] = -1;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell / height;
+            int cy = cell % height;
+            for (int dir = 0; dir < 4; dir++) {
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                int next = nx * height + ny;
+                if (visited[next] == generation) continue;
+                visited[next] = generation;
+                if (map.getTileType(nx, ny) == TileType.WALL) continue;
+
+                int step = cell == start ? dir : firstStep[cell];
+                if (occupancy.isOccupied(nx, ny)) {
+                    if (huntEnemies) return step;
+                    continue;
+                }
+                if (isObjective(map, nx, ny, next)) return step;
+                firstStep[next] = step;
+                queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    private void markDrops(DropManager<?> drops, int height) {
+        for (int i = 0; i < drops.size(); i++) {
+            Drop drop = drops.get(i);
+            dropMark[drop.getX() * height + drop.getY()] = generation;
+        }
+    }
+
+    private boolean isObjective(DungeonMap map, int x, int y, int index) {
+        if (state.isKeyCollected()) {
+            return map.getTileType(x, y) == TileType.LEVEL_UP_DOOR;
+        }
+        if (state.hasKey()) {
+            return x == map.getKeyX() && y == map.getKeyY();
+        }
+        return dropMark[index] == generation;
+    }
+}
@@ -0,0 +1,232 @@
+package DungeonCrawler;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many complete games with {@link BalanceBot} on headless engines and
+ * aggregates the results per {@link Difficulty}, so the scaling formulas can
+ * be tuned without manual playtesting. Every game runs on its own virtual
+ * thread, or on a fixed pool of platform threads with {@code --threads n}.
+ * Errors the engine reports to its listener are counted and reported with
+ * the results, since a broken rule would otherwise only show up as a skewed
+ * win or stall rate.
+ *
+ * Usage: {@code java DungeonCrawler.BalanceHarness [games] [--sweep] [--threads n]}
+ */
+public class BalanceHarness {
+    /** Simulated time per turn, so drops expire as they would for a brisk player. */
+    private static final long TURN_MILLIS = 500;
+    /** A level the bot has not cleared after this many turns counts as a stall. */
+    private static final int LEVEL_TURN_LIMIT = 4000;
+
+    private final int width;
+    private final int height;
+    private final String strategyName;
+
+    public BalanceHarness(int width, int height, String strategyName) {
+        this.width = width;
+        this.height = height;
+        this.strategyName = strategyName;
+    }
+
+    /** Plays {@code games} games with seeds {@code baseSeed, baseSeed + 1, ...} on the given executor. */
+    public BalanceSummary run(Difficulty difficulty, int games, long baseSeed, ExecutorService executor)
+            throws Exception {
+        int unwinnable = difficulty.firstUnwinnableLevel(GameEngine.MAX_LEVELS);
+        if (unwinnable > 0) {
+            throw new IllegalArgumentException("Level " + unwinnable + " has fewer enemies than the key needs: "
+                    + difficulty);
+        }
+        BalanceSummary summary = new BalanceSummary(difficulty);
+        long start = System.nanoTime();
+        List<Future<?>> pending = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            long seed = baseSeed + i;
+            pending.add(executor.submit(() -> playGame(difficulty, seed, summary)));
+        }
+        for (Future<?> game : pending) {
+            game.get();
+        }
+        summary.setElapsedNanos(System.nanoTime() - start);
+        return summary;
+    }
+
+    private void playGame(Difficulty difficulty, long seed, BalanceSummary summary) {
+        GameState state = new GameState(width, height, seed, difficulty);
+        ErrorCounter errors = new ErrorCounter();
+        GameEngine engine = new GameEngine(state, () -> DungeonGenerationStrategy.forName(strategyName),
+                false, errors);
+        long[] clock = {0};
+        engine.setClock(() -> clock[0]);
+        engine.startNewGame();
+        BalanceBot bot = new BalanceBot(state);
+
+        int[] turnsPerLevel = new int[GameEngine.MAX_LEVELS + 1];
+        int level = state.getCurrentLevel();
+        int turnsOnLevel = 0;
+        long turns = 0;
+        long damage = 0;
+        boolean stalled = false;
+        boolean unwinnable = false;
+
+        while (!state.isGameOver()) {
+            if (turnsOnLevel >= LEVEL_TURN_LIMIT) {
+                // Not the bot's fault if the level never had enough enemies to earn the key
+                unwinnable = !canEarnKey(state);
+                stalled = !unwinnable;
+                break;
+            }
+            clock[0] += TURN_MILLIS;
+            Command command = bot.next();
+            int health = state.getPlayerHealth();
+            engine.step(command);
+            if (command != Command.USE_POTION) {
+                damage += Math.max(0, health - state.getPlayerHealth());
+            }
+            turns++;
+            turnsOnLevel++;
+            if (state.getCurrentLevel() != level) {
+                turnsPerLevel[level] = turnsOnLevel;
+                level = state.getCurrentLevel();
+                turnsOnLevel = 0;
+            }
+        }
+
+        boolean won = state.isGameOver() && state.getPlayerHealth() > 0 && level == GameEngine.MAX_LEVELS;
+        if (won) {
+            turnsPerLevel[level] = turnsOnLevel;
+        }
+        synchronized (summary) {
+            summary.addGame(won, stalled, unwinnable, level, turns, turnsPerLevel, damage, state.getPlayerGold());
+            summary.addErrors(errors.count, errors.examples);
+        }
+    }
+
+    /**
+     * Whether the floor still holds enough regular enemies, and a boss if
+     * none has died, to earn the key. Spawning gives up on an enemy after a
+     * few failed placements, so a floor can fall short from the start.
+     */
+    private static boolean canEarnKey(GameState state) {
+        if (state.hasKey()) return true;
+        EnemyPool enemies = state.getEnemies();
+        int regular = 0;
+        boolean boss = state.isBossKilled();
+        for (int slot = 0; enemies != null && slot < enemies.size(); slot++) {
+            if (enemies.isBoss(slot)) {
+                boss = true;
+            } else {
+                regular++;
+            }
+        }
+        int required = state.getDifficulty().getRequiredKills(state.getCurrentLevel());
+        return boss && regular + state.getRegularEnemyKills() >= required;
+    }
+
+    /** One virtual thread per game, or with {@code threads > 0} a fixed pool of that many platform threads. */
+    public static ExecutorService newGameExecutor(int threads) {
+        if (threads <= 0) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "balance-game");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** The default formulas plus one-knob-at-a-time variations around them. */
+    public static List<Difficulty> sweep() {
+        Difficulty base = Difficulty.DEFAULT;
+        List<Difficulty> variants = new ArrayList<>();
+        variants.add(base);
+        variants.add(base.withEnemies(4, 1));
+        variants.add(base.withEnemies(5, 2));
+        variants.add(base.withEnemyHealth(50, 3));
+        variants.add(base.withEnemyHealth(50, 8));
+        variants.add(base.withBosses(1, 10, 100, 10));
+        variants.add(base.withBosses(1, 5, 100, 5));
+        variants.add(base.withKeyKills(3, 5));
+        variants.add(base.withKeyKills(5, 3));
+        return variants;
+    }
+
+    public static void main(String[] args) {
+        int games = 1000;
+        int threads = 0;
+        boolean sweep = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--sweep".equals(args[i])) {
+                sweep = true;
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                games = Integer.parseInt(args[i]);
+            }
+        }
+
+        ExecutorService executor = newGameExecutor(threads);
+        BalanceHarness harness = new BalanceHarness(
+                Integer.getInteger("dungeon.width", 40),
+                Integer.getInteger("dungeon.height", 30),
+                System.getProperty("dungeon.strategy", "backtracker"));
+        try {
+            for (Difficulty difficulty : sweep ? sweep() : List.of(Difficulty.DEFAULT)) {
+                print(System.out, harness.run(difficulty, games, 1, executor));
+            }
+        } catch (Exception e) {
+            System.err.println("Balance run failed: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void print(PrintStream out, BalanceSummary summary) {
+        out.println("== " + summary.getDifficulty());
+        out.printf("  %d games in %.1f s (%.0f games/s, %.0f turns/s)%n",
+                summary.getGames(), summary.getElapsedNanos() / 1e9, summary.getGamesPerSecond(),
+                summary.getTotalTurns() * 1e9 / Math.max(1, summary.getElapsedNanos()));
+        out.printf("  win rate %.1f%%, stalled %.1f%%, unwinnable %.1f%%, mean level reached %.1f%n",
+                summary.getWinRate() * 100, summary.getStallRate() * 100, summary.getUnwinnableRate() * 100,
+                summary.getAverageLevelReached());
+        out.printf("  mean damage taken %.0f, mean gold earned %.0f%n",
+                summary.getAverageDamageTaken(), summary.getAverageGoldEarned());
+        StringBuilder levels = new StringBuilder("  turns per level:");
+        for (int level = 1; level <= GameEngine.MAX_LEVELS; level++) {
+            if (summary.getLevelCompletions(level) == 0) break;
+            levels.append(String.format(" L%d=%.0f", level, summary.getAverageTurnsForLevel(level)));
+        }
+        out.println(levels);
+        if (summary.getErrorCount() > 0) {
+            out.printf("  ENGINE ERRORS: %d reported%n", summary.getErrorCount());
+            for (Map.Entry<String, Integer> example : summary.getErrorExamples().entrySet()) {
+                out.printf("    %dx %s%n", example.getValue(), example.getKey());
+            }
+        }
+    }
+
+    /** One game's listener: ignores events and counts the errors the engine reports. */
+    private static class ErrorCounter implements GameListener {
+        int count;
+        final Map<String, Integer> examples = new LinkedHashMap<>();
+
+        @Override
+        public void onEvent(GameEvent event) {}
+
+        @Override
+        public void onProjectile(Projectile projectile) {}
+
+        @Override
+        public void onError(String title, String header, String message) {
+            count++;
+            examples.merge(title + ": " + header + " (" + message + ")", 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package DungeonCrawler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregate results of one {@link BalanceHarness} configuration: how often
+ * the bot won, got stuck or was dealt a level it could not win, how long
+ * each level took it, what the run cost and earned, and what errors the
+ * engine reported.
+ */
+public class BalanceSummary {
+    private static final int MAX_ERROR_EXAMPLES = 5;
+
+    private final Difficulty difficulty;
+    private final long[] levelTurns = new long[GameEngine.MAX_LEVELS + 1];
+    private final int[] levelCompletions = new int[GameEngine.MAX_LEVELS + 1];
+    private final Map<String, Integer> errorExamples = new LinkedHashMap<>();
+    private int games;
+    private int wins;
+    private int stalls;
+    private int unwinnable;
+    private long turns;
+    private long levelsReached;
+    private long damageTaken;
+    private long goldEarned;
+    private long errors;
+    private long elapsedNanos;
+
+    public BalanceSummary(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    void addGame(boolean won, boolean stalled, boolean unwinnableLevel, int levelReached, long gameTurns,
+                 int[] turnsPerLevel, long damage, long gold) {
+        games++;
+        if (won) wins++;
+        if (stalled) stalls++;
+        if (unwinnableLevel) unwinnable++;
+        turns += gameTurns;
+        levelsReached += levelReached;
+        damageTaken += damage;
+        goldEarned += gold;
+        for (int level = 1; level < turnsPerLevel.length; level++) {
+            if (turnsPerLevel[level] > 0) {
+                levelTurns[level] += turnsPerLevel[level];
+                levelCompletions[level]++;
+            }
+        }
+    }
+
+    /** Adds one game's engine errors, keeping counts for the first few distinct messages. */
+    void addErrors(int count, Map<String, Integer> examples) {
+        errors += count;
+        for (Map.Entry<String, Integer> example : examples.entrySet()) {
+            if (errorExamples.containsKey(example.getKey()) || errorExamples.size() < MAX_ERROR_EXAMPLES) {
+                errorExamples.merge(example.getKey(), example.getValue(), Integer::sum);
+            }
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) { this.elapsedNanos = elapsedNanos; }
+
+    public Difficulty getDifficulty() { return difficulty; }
+    public int getGames() { return games; }
+    public double getWinRate() { return games == 0 ? 0 : (double) wins / games; }
+    /** Share of games abandoned because the bot spent too long on a level it could have won. */
+    public double getStallRate() { return games == 0 ? 0 : (double) stalls / games; }
+    /** Share of games that ended on a level spawned with too few enemies to earn the key. */
+    public double getUnwinnableRate() { return games == 0 ? 0 : (double) unwinnable / games; }
+    public double getAverageLevelReached() { return games == 0 ? 0 : (double) levelsReached / games; }
+    public double getAverageDamageTaken() { return games == 0 ? 0 : (double) damageTaken / games; }
+    public double getAverageGoldEarned() { return games == 0 ? 0 : (double) goldEarned / games; }
+    public long getTotalTurns() { return turns; }
+    public int getLevelCompletions(int level) { return levelCompletions[level]; }
+
+    /** Mean turns spent on the given level by games that cleared it. */
+    public double getAverageTurnsForLevel(int level) {
+        return levelCompletions[level] == 0 ? 0 : (double) levelTurns[level] / levelCompletions[level];
+    }
+
+    public long getErrorCount() { return errors; }
+    public Map<String, Integer> getErrorExamples() { return Collections.unmodifiableMap(errorExamples); }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+}
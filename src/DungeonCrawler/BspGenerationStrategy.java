@@ -0,0 +1,163 @@
+package DungeonCrawler;
+
+import java.util.Random;
+
+/**
+ * Binary space partitioning generator. The map interior is split recursively
+ * into partitions no larger than {@link #MAX_LEAF_SIZE}, a room is placed in
+ * every leaf, and each pair of siblings is joined by an L-shaped corridor
+ * between a room of the left subtree and a room of the right subtree.
+ *
+ * The tree is kept in flat arrays and walked without recursion; children are
+ * always stored after their parent, so a reverse sweep visits every subtree
+ * before the node that owns it. Work is proportional to the map area.
+ */
+public class BspGenerationStrategy implements DungeonGenerationStrategy {
+    private static final int MIN_LEAF_SIZE = 8;
+    private static final int MAX_LEAF_SIZE = 16;
+    private static final int MIN_ROOM_SIZE = 4;
+
+    private int[] nodeX;
+    private int[] nodeY;
+    private int[] nodeW;
+    private int[] nodeH;
+    private int[] leftChild;
+    private int[] anchorX;
+    private int[] anchorY;
+    private int nodeCount;
+
+    @Override
+    public void generate(TileType[][] map, Random random) {
+        int width = map.length;
+        int height = map[0].length;
+        if (width < 3 || height < 3) return;
+
+        // A side is only cut if it is at least twice MIN_LEAF_SIZE, so each axis
+        // holds at most side / MIN_LEAF_SIZE leaves, and at least one
+        int maxLeaves = Math.max(1, width / MIN_LEAF_SIZE) * Math.max(1, height / MIN_LEAF_SIZE);
+        allocate(2 * maxLeaves + 1);
+
+        addNode(1, 1, width - 2, height - 2);
+        split(random);
+        placeRoomsAndConnect(map, random);
+    }
+
+    private void allocate(int capacity) {
+        nodeX = new int[capacity];
+        nodeY = new int[capacity];
+        nodeW = new int[capacity];
+        nodeH = new int[capacity];
+        leftChild = new int[capacity];
+        anchorX = new int[capacity];
+        anchorY = new int[capacity];
+        nodeCount = 0;
+    }
+
+    private int addNode(int x, int y, int w, int h) {
+        int index = nodeCount++;
+        nodeX[index] = x;
+        nodeY[index] = y;
+        nodeW[index] = w;
+        nodeH[index] = h;
+        leftChild[index] = -1;
+        return index;
+    }
+
+    private void split(Random random) {
+        // Nodes are appended in breadth-first order, so the array doubles as the work queue
+        for (int i = 0; i < nodeCount; i++) {
+            int w = nodeW[i];
+            int h = nodeH[i];
+            if (w <= MAX_LEAF_SIZE && h <= MAX_LEAF_SIZE) continue;
+
+            boolean canSplitVertical = w >= MIN_LEAF_SIZE * 2;
+            boolean canSplitHorizontal = h >= MIN_LEAF_SIZE * 2;
+            if (!canSplitVertical && !canSplitHorizontal) continue;
+
+            boolean vertical;
+            if (!canSplitHorizontal) {
+                vertical = true;
+            } else if (!canSplitVertical) {
+                vertical = false;
+            } else if (w > h * 5 / 4) {
+                vertical = true;
+            } else if (h > w * 5 / 4) {
+                vertical = false;
+            } else {
+                vertical = random.nextBoolean();
+            }
+
+            if (vertical) {
+                int cut = MIN_LEAF_SIZE + random.nextInt(w - MIN_LEAF_SIZE * 2 + 1);
+                leftChild[i] = addNode(nodeX[i], nodeY[i], cut, h);
+                addNode(nodeX[i] + cut, nodeY[i], w - cut, h);
+            } else {
+                int cut = MIN_LEAF_SIZE + random.nextInt(h - MIN_LEAF_SIZE * 2 + 1);
+                leftChild[i] = addNode(nodeX[i], nodeY[i], w, cut);
+                addNode(nodeX[i], nodeY[i] + cut, w, h - cut);
+            }
+        }
+    }
+
+    private void placeRoomsAndConnect(TileType[][] map, Random random) {
+        for (int i = nodeCount - 1; i >= 0; i--) {
+            int left = leftChild[i];
+            if (left < 0) {
+                placeRoom(map, random, i);
+            } else {
+                // Right child is always stored directly after the left one
+                int right = left + 1;
+                carveCorridor(map, anchorX[left], anchorY[left], anchorX[right], anchorY[right], random.nextBoolean());
+                int chosen = random.nextBoolean() ? left : right;
+                anchorX[i] = anchorX[chosen];
+                anchorY[i] = anchorY[chosen];
+            }
+        }
+    }
+
+    private void placeRoom(TileType[][] map, Random random, int leaf) {
+        // Leave a one-tile margin so rooms in neighbouring leaves never merge
+        int availW = nodeW[leaf] - 2;
+        int availH = nodeH[leaf] - 2;
+        if (availW < 1 || availH < 1) {
+            availW = Math.max(1, nodeW[leaf]);
+            availH = Math.max(1, nodeH[leaf]);
+        }
+
+        int roomW = availW <= MIN_ROOM_SIZE ? availW : MIN_ROOM_SIZE + random.nextInt(availW - MIN_ROOM_SIZE + 1);
+        int roomH = availH <= MIN_ROOM_SIZE ? availH : MIN_ROOM_SIZE + random.nextInt(availH - MIN_ROOM_SIZE + 1);
+        int roomX = nodeX[leaf] + (nodeW[leaf] - availW) / 2 + random.nextInt(availW - roomW + 1);
+        int roomY = nodeY[leaf] + (nodeH[leaf] - availH) / 2 + random.nextInt(availH - roomH + 1);
+
+        for (int x = roomX; x < roomX + roomW; x++) {
+            for (int y = roomY; y < roomY + roomH; y++) {
+                map[x][y] = TileType.ROOM;
+            }
+        }
+
+        anchorX[leaf] = roomX + roomW / 2;
+        anchorY[leaf] = roomY + roomH / 2;
+    }
+
+    private void carveCorridor(TileType[][] map, int fromX, int fromY, int toX, int toY, boolean horizontalFirst) {
+        int cornerX = horizontalFirst ? toX : fromX;
+        int cornerY = horizontalFirst ? fromY : toY;
+        carveLine(map, fromX, fromY, cornerX, cornerY);
+        carveLine(map, cornerX, cornerY, toX, toY);
+    }
+
+    private void carveLine(TileType[][] map, int fromX, int fromY, int toX, int toY) {
+        int stepX = Integer.compare(toX, fromX);
+        int stepY = Integer.compare(toY, fromY);
+        int x = fromX;
+        int y = fromY;
+        while (true) {
+            if (map[x][y] == TileType.WALL) {
+                map[x][y] = TileType.FLOOR;
+            }
+            if (x == toX && y == toY) break;
+            x += stepX;
+            y += stepY;
+        }
+    }
+}
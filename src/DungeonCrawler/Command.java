@@ -0,0 +1,17 @@
+package DungeonCrawler;
+
+/**
+ * A player input understood by {@link GameEngine#step(Command)}. Replays store
+ * commands by ordinal, so new constants must only ever be appended.
+ */
+public enum Command {
+    MOVE_UP,
+    MOVE_DOWN,
+    MOVE_LEFT,
+    MOVE_RIGHT,
+    FIREBALL,
+    USE_POTION,
+    RESTART_LEVEL,
+    NEW_GAME,
+    DESCEND
+}
@@ -0,0 +1,90 @@
+package DungeonCrawler;
+
+/**
+ * The formulas that scale a level's enemies and the key requirement with
+ * depth. Each quantity is {@code base + level * perLevel} (or
+ * {@code base + level / levelsPer...}), matching the original hard-coded
+ * values in {@link #DEFAULT}; {@link BalanceHarness} sweeps variations.
+ */
+public class Difficulty {
+    public static final Difficulty DEFAULT = new Difficulty(5, 1, 50, 5, 1, 5, 100, 10, 5, 5);
+
+    private final int baseEnemies;
+    private final int enemiesPerLevel;
+    private final int enemyBaseHealth;
+    private final int enemyHealthPerLevel;
+    private final int baseBosses;
+    private final int levelsPerExtraBoss;
+    private final int bossBaseHealth;
+    private final int bossHealthPerLevel;
+    private final int baseKillsForKey;
+    private final int levelsPerExtraKill;
+
+    public Difficulty(int baseEnemies, int enemiesPerLevel, int enemyBaseHealth, int enemyHealthPerLevel,
+                      int baseBosses, int levelsPerExtraBoss, int bossBaseHealth, int bossHealthPerLevel,
+                      int baseKillsForKey, int levelsPerExtraKill) {
+        if (levelsPerExtraBoss <= 0 || levelsPerExtraKill <= 0) {
+            throw new IllegalArgumentException("Level divisors must be positive");
+        }
+        this.baseEnemies = baseEnemies;
+        this.enemiesPerLevel = enemiesPerLevel;
+        this.enemyBaseHealth = enemyBaseHealth;
+        this.enemyHealthPerLevel = enemyHealthPerLevel;
+        this.baseBosses = baseBosses;
+        this.levelsPerExtraBoss = levelsPerExtraBoss;
+        this.bossBaseHealth = bossBaseHealth;
+        this.bossHealthPerLevel = bossHealthPerLevel;
+        this.baseKillsForKey = baseKillsForKey;
+        this.levelsPerExtraKill = levelsPerExtraKill;
+    }
+
+    public int getEnemyCount(int level) { return baseEnemies + level * enemiesPerLevel; }
+    public int getEnemyHealth(int level) { return enemyBaseHealth + level * enemyHealthPerLevel; }
+    public int getBossCount(int level) { return baseBosses + level / levelsPerExtraBoss; }
+    public int getBossHealth(int level) { return bossBaseHealth + level * bossHealthPerLevel; }
+    /** Regular kills needed, together with a boss kill, before the key appears. */
+    public int getRequiredKills(int level) { return baseKillsForKey + level / levelsPerExtraKill; }
+
+    /**
+     * The first level up to {@code maxLevel} that spawns fewer regular
+     * enemies than the key needs kills, so it can never be cleared, or 0 if
+     * there is none.
+     */
+    public int firstUnwinnableLevel(int maxLevel) {
+        for (int level = 1; level <= maxLevel; level++) {
+            if (getEnemyCount(level) < getRequiredKills(level)) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    public Difficulty withEnemies(int base, int perLevel) {
+        return new Difficulty(base, perLevel, enemyBaseHealth, enemyHealthPerLevel, baseBosses,
+                levelsPerExtraBoss, bossBaseHealth, bossHealthPerLevel, baseKillsForKey, levelsPerExtraKill);
+    }
+
+    public Difficulty withEnemyHealth(int base, int perLevel) {
+        return new Difficulty(baseEnemies, enemiesPerLevel, base, perLevel, baseBosses,
+                levelsPerExtraBoss, bossBaseHealth, bossHealthPerLevel, baseKillsForKey, levelsPerExtraKill);
+    }
+
+    public Difficulty withBosses(int base, int levelsPerExtra, int baseHealth, int healthPerLevel) {
+        return new Difficulty(baseEnemies, enemiesPerLevel, enemyBaseHealth, enemyHealthPerLevel, base,
+                levelsPerExtra, baseHealth, healthPerLevel, baseKillsForKey, levelsPerExtraKill);
+    }
+
+    public Difficulty withKeyKills(int base, int levelsPerExtra) {
+        return new Difficulty(baseEnemies, enemiesPerLevel, enemyBaseHealth, enemyHealthPerLevel, baseBosses,
+                levelsPerExtraBoss, bossBaseHealth, bossHealthPerLevel, base, levelsPerExtra);
+    }
+
+    @Override
+    public String toString() {
+        return "enemies " + baseEnemies + "+" + enemiesPerLevel + "L" +
+                ", hp " + enemyBaseHealth + "+" + enemyHealthPerLevel + "L" +
+                ", bosses " + baseBosses + "+L/" + levelsPerExtraBoss +
+                ", boss hp " + bossBaseHealth + "+" + bossHealthPerLevel + "L" +
+                ", key kills " + baseKillsForKey + "+L/" + levelsPerExtraKill;
+    }
+}
@@ -0,0 +1,28 @@
+package DungeonCrawler;
+
+/**
+ * An item lying on the map that expires after a while. Instances are reused
+ * by {@link DropManager}, so all state is reset through {@link #place}; the
+ * package-private links are the manager's bookkeeping.
+ */
+public abstract class Drop extends Entity {
+    private long spawnTime;
+
+    long expiresAt;
+    Drop wheelPrev;
+    Drop wheelNext;
+    Drop tileNext;
+    int activeIndex = -1;
+
+    protected Drop() {
+        super(0, 0);
+    }
+
+    void place(int x, int y, long spawnTime) {
+        storePosition(x, y);
+        this.spawnTime = spawnTime;
+        this.alive = true;
+    }
+
+    public long getSpawnTime() { return spawnTime; }
+}
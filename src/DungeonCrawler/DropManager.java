@@ -0,0 +1,189 @@
+package DungeonCrawler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Owns every drop of one kind on the current level.
+ *
+ * Expiry runs on a hashed timer wheel: each drop is linked into the slot for
+ * the tick in which it expires, and {@link #expire(long)} only visits the
+ * slots for ticks that have passed since the last call, so the cost is the
+ * number of drops that actually expire. Pickup goes through a per-tile
+ * lookup, and removed drops are kept for reuse instead of being allocated
+ * again for the next kill.
+ */
+public class DropManager<T extends Drop> {
+    private static final long TICK_MILLIS = 250;
+    private static final int WHEEL_SLOTS = 256;
+
+    private final Supplier<T> factory;
+    private final long lifetimeMillis;
+    private final Drop[] wheel = new Drop[WHEEL_SLOTS];
+    private final Map<Long, Drop> byTile = new HashMap<>();
+    private final List<T> active = new ArrayList<>();
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private long lastTick = -1;
+
+    public DropManager(Supplier<T> factory, long lifetimeMillis) {
+        this.factory = factory;
+        this.lifetimeMillis = lifetimeMillis;
+    }
+
+    /** Places a pooled (or new) drop on the given tile; it expires lifetimeMillis after now. */
+    public T spawn(int x, int y, long now) {
+        T drop = free.isEmpty() ? factory.get() : free.pop();
+        drop.place(x, y, now);
+        // A drop is gone once more than lifetimeMillis have passed
+        drop.expiresAt = now + lifetimeMillis + 1;
+
+        drop.activeIndex = active.size();
+        active.add(drop);
+
+        long key = tileKey(x, y);
+        drop.tileNext = byTile.get(key);
+        byTile.put(key, drop);
+
+        linkIntoWheel(drop);
+        if (lastTick < 0) {
+            lastTick = now / TICK_MILLIS;
+        }
+        return drop;
+    }
+
+    public int size() { return active.size(); }
+    public T get(int index) { return active.get(index); }
+
+    public boolean hasDropAt(int x, int y) {
+        return byTile.containsKey(tileKey(x, y));
+    }
+
+    /**
+     * Removes and returns one drop lying on the given tile, or null if there
+     * is none. Hand it back through {@link #release} once it has been read.
+     */
+    public T takeAt(int x, int y) {
+        long key = tileKey(x, y);
+        Drop head = byTile.get(key);
+        if (head == null) return null;
+        @SuppressWarnings("unchecked")
+        T drop = (T) head;
+        remove(drop);
+        return drop;
+    }
+
+    public void release(T drop) {
+        drop.alive = false;
+        free.push(drop);
+    }
+
+    /** Removes every drop whose lifetime has run out by the given time. */
+    public void expire(long now) {
+        if (active.isEmpty()) {
+            lastTick = now / TICK_MILLIS;
+            return;
+        }
+        long currentTick = now / TICK_MILLIS;
+        if (lastTick < 0) {
+            lastTick = currentTick;
+        }
+
+        // Slots of fully elapsed ticks hold only due drops, unless they were scheduled a full turn ahead
+        long from = Math.max(lastTick, currentTick - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= currentTick; tick++) {
+            int slot = (int) (tick % WHEEL_SLOTS);
+            Drop drop = wheel[slot];
+            while (drop != null) {
+                Drop next = drop.wheelNext;
+                if (drop.expiresAt <= now) {
+                    @SuppressWarnings("unchecked")
+                    T expired = (T) drop;
+                    remove(expired);
+                    release(expired);
+                }
+                drop = next;
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    public void clear() {
+        for (T drop : active) {
+            drop.wheelPrev = null;
+            drop.wheelNext = null;
+            drop.tileNext = null;
+            drop.activeIndex = -1;
+            release(drop);
+        }
+        active.clear();
+        byTile.clear();
+        Arrays.fill(wheel, null);
+    }
+
+    private void remove(T drop) {
+        // Active list: swap the last drop into the freed position
+        int index = drop.activeIndex;
+        T last = active.remove(active.size() - 1);
+        if (last != drop) {
+            active.set(index, last);
+            last.activeIndex = index;
+        }
+        drop.activeIndex = -1;
+
+        // Tile chain
+        long key = tileKey(drop.getX(), drop.getY());
+        Drop head = byTile.get(key);
+        if (head == drop) {
+            if (drop.tileNext == null) {
+                byTile.remove(key);
+            } else {
+                byTile.put(key, drop.tileNext);
+            }
+        } else {
+            Drop previous = head;
+            while (previous != null && previous.tileNext != drop) {
+                previous = previous.tileNext;
+            }
+            if (previous != null) {
+                previous.tileNext = drop.tileNext;
+            }
+        }
+        drop.tileNext = null;
+
+        // Wheel slot
+        int slot = wheelSlot(drop.expiresAt);
+        if (drop.wheelPrev != null) {
+            drop.wheelPrev.wheelNext = drop.wheelNext;
+        } else if (wheel[slot] == drop) {
+            wheel[slot] = drop.wheelNext;
+        }
+        if (drop.wheelNext != null) {
+            drop.wheelNext.wheelPrev = drop.wheelPrev;
+        }
+        drop.wheelPrev = null;
+        drop.wheelNext = null;
+    }
+
+    private void linkIntoWheel(Drop drop) {
+        int slot = wheelSlot(drop.expiresAt);
+        drop.wheelPrev = null;
+        drop.wheelNext = wheel[slot];
+        if (wheel[slot] != null) {
+            wheel[slot].wheelPrev = drop;
+        }
+        wheel[slot] = drop;
+    }
+
+    private static int wheelSlot(long expiresAt) {
+        return (int) ((expiresAt / TICK_MILLIS) % WHEEL_SLOTS);
+    }
+
+    private static long tileKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
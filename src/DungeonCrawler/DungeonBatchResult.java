@@ -0,0 +1,22 @@
+package DungeonCrawler;
+
+/**
+ * One level produced by {@link DungeonGenerator#generateBatch}, together with
+ * the seed it came from and how long that seed took to generate.
+ */
+public class DungeonBatchResult {
+    private final long seed;
+    private final DungeonMap map;
+    private final long generationNanos;
+
+    public DungeonBatchResult(long seed, DungeonMap map, long generationNanos) {
+        this.seed = seed;
+        this.map = map;
+        this.generationNanos = generationNanos;
+    }
+
+    public long getSeed() { return seed; }
+    public DungeonMap getMap() { return map; }
+    public long getGenerationNanos() { return generationNanos; }
+    public double getGenerationMillis() { return generationNanos / 1_000_000.0; }
+}
@@ -0,0 +1,25 @@
+package DungeonCrawler;
+
+import java.util.Random;
+
+/**
+ * Lays out corridors and rooms for {@link DungeonGenerator}. The map is handed
+ * over filled with {@link TileType#WALL}; implementations carve
+ * {@link TileType#FLOOR} corridors and {@link TileType#ROOM} tiles into it,
+ * drawing all randomness from the supplied generator so a seed always yields
+ * the same layout. Doors are added by the generator afterwards.
+ *
+ * Implementations may keep per-run state, so each generator should be given
+ * its own instance.
+ */
+public interface DungeonGenerationStrategy {
+    void generate(TileType[][] map, Random random);
+
+    /** Creates a strategy from its configuration name; anything unknown gets the backtracker. */
+    static DungeonGenerationStrategy forName(String name) {
+        if ("bsp".equalsIgnoreCase(name)) {
+            return new BspGenerationStrategy();
+        }
+        return new BacktrackerGenerationStrategy();
+    }
+}
@@ -1,13 +1,22 @@
 package DungeonCrawler;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
 
 public class DungeonGenerator {
     private Random random;
     private int width;
     private int height;
+    private DungeonGenerationStrategy strategy;
 
     public DungeonGenerator(int width, int height, long seed) {
+        this(width, height, seed, new BacktrackerGenerationStrategy());
+    }
+
+    public DungeonGenerator(int width, int height, long seed, DungeonGenerationStrategy strategy) {
+        this.strategy = strategy != null ? strategy : new BacktrackerGenerationStrategy();
         try {
             if (width <= 0 || height <= 0) {
                 throw new IllegalArgumentException("Map dimensions must be positive");
@@ -23,6 +32,29 @@ public class DungeonGenerator {
         }
     }
 
+    /**
+     * Generates one level per seed in parallel on the common fork/join pool.
+     * Every seed gets its own generator and {@link Random}, so each map is
+     * identical to what a sequential {@code new DungeonGenerator(w, h, seed)}
+     * would produce. Results are returned in seed order.
+     */
+    public static DungeonBatchResult[] generateBatch(long[] seeds, int width, int height) {
+        return generateBatch(seeds, width, height, BacktrackerGenerationStrategy::new, ForkJoinPool.commonPool());
+    }
+
+    public static DungeonBatchResult[] generateBatch(long[] seeds, int width, int height,
+                                                     Supplier<DungeonGenerationStrategy> strategyFactory,
+                                                     ForkJoinPool pool) {
+        if (seeds == null) {
+            throw new IllegalArgumentException("Seeds cannot be null");
+        }
+        DungeonBatchResult[] results = new DungeonBatchResult[seeds.length];
+        if (seeds.length > 0) {
+            pool.invoke(new BatchTask(seeds, width, height, strategyFactory, results, 0, seeds.length));
+        }
+        return results;
+    }
+
     public DungeonMap generate() {
         try {
             TileType[][] map = new TileType[width][height];
@@ -34,10 +66,8 @@ public class DungeonGenerator {
                 }
             }
 
-            // Carve initial paths starting from center
-            carve(map, width / 2, height / 2);
-            // Add rooms to the map
-            addRooms(map, 5 + random.nextInt(5));
+            // Carve corridors and rooms
+            strategy.generate(map, random);
             // Add doors between rooms and corridors
             addDoors(map);
 
@@ -61,70 +91,6 @@ public class DungeonGenerator {
         }
     }
 
-    private void carve(TileType[][] map, int x, int y) {
-        try {
-            if (x <= 0 || x >= width - 1 || y <= 0 || y >= height - 1) return;
-            if (map[x][y] != TileType.WALL) return;
-
-            // Count adjacent floor tiles
-            int adjacent = 0;
-            if (map[x + 1][y] == TileType.FLOOR) adjacent++;
-            if (map[x - 1][y] == TileType.FLOOR) adjacent++;
-            if (map[x][y + 1] == TileType.FLOOR) adjacent++;
-            if (map[x][y - 1] == TileType.FLOOR) adjacent++;
-
-            if (adjacent > 1) return; // Prevent over-carving
-
-            map[x][y] = TileType.FLOOR;
-
-            // Randomize direction order
-            int[] dirs = {0, 1, 2, 3};
-            shuffleArray(dirs);
-
-            for (int dir : dirs) {
-                switch (dir) {
-                    case 0:
-                        carve(map, x + 1, y);
-                        break;
-                    case 1:
-                        carve(map, x - 1, y);
-                        break;
-                    case 2:
-                        carve(map, x, y + 1);
-                        break;
-                    case 3:
-                        carve(map, x, y - 1);
-                        break;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error carving map at (" + x + "," + y + "): " + e.getMessage());
-        }
-    }
-
-    private void addRooms(TileType[][] map, int roomCount) {
-        try {
-            for (int i = 0; i < roomCount; i++) {
-                int roomWidth = 5 + random.nextInt(3);
-                int roomHeight = 5 + random.nextInt(3);
-                int x = 1 + random.nextInt(width - roomWidth - 2);
-                int y = 1 + random.nextInt(height - roomHeight - 2);
-
-                // Carve room
-                for (int rx = x; rx < x + roomWidth; rx++) {
-                    for (int ry = y; ry < y + roomHeight; ry++) {
-                        map[rx][ry] = TileType.ROOM;
-                    }
-                }
-
-                // Connect room to nearest corridor
-                connectRoom(map, x + roomWidth / 2, y + roomHeight / 2);
-            }
-        } catch (Exception e) {
-            System.err.println("Error adding rooms: " + e.getMessage());
-        }
-    }
-
     private void addDoors(TileType[][] map) {
         try {
             for (int x = 1; x < width - 1; x++) {
@@ -151,60 +117,41 @@ public class DungeonGenerator {
         }
     }
 
-    private void connectRoom(TileType[][] map, int roomX, int roomY) {
-        try {
-            int nearestX = roomX;
-            int nearestY = roomY;
-            double nearestDist = Double.MAX_VALUE;
+    private static class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-            // Find nearest floor tile
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    if (map[x][y] == TileType.FLOOR) {
-                        double dist = Math.sqrt(Math.pow(x - roomX, 2) + Math.pow(y - roomY, 2));
-                        if (dist < nearestDist) {
-                            nearestDist = dist;
-                            nearestX = x;
-                            nearestY = y;
-                        }
-                    }
-                }
-            }
+        private final long[] seeds;
+        private final int width;
+        private final int height;
+        private final transient Supplier<DungeonGenerationStrategy> strategyFactory;
+        private final transient DungeonBatchResult[] results;
+        private final int from;
+        private final int to;
 
-            // Carve path from room to nearest floor
-            int currentX = roomX;
-            int currentY = roomY;
-            while (currentX != nearestX || currentY != nearestY) {
-                if (currentX < nearestX) {
-                    currentX++;
-                } else if (currentX > nearestX) {
-                    currentX--;
-                } else if (currentY < nearestY) {
-                    currentY++;
-                } else if (currentY > nearestY) {
-                    currentY--;
-                }
-                if (currentX >= 0 && currentX < width && currentY >= 0 && currentY < height) {
-                    if (map[currentX][currentY] != TileType.ROOM) {
-                        map[currentX][currentY] = TileType.FLOOR;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error connecting room at (" + roomX + "," + roomY + "): " + e.getMessage());
+        BatchTask(long[] seeds, int width, int height, Supplier<DungeonGenerationStrategy> strategyFactory,
+                  DungeonBatchResult[] results, int from, int to) {
+            this.seeds = seeds;
+            this.width = width;
+            this.height = height;
+            this.strategyFactory = strategyFactory;
+            this.results = results;
+            this.from = from;
+            this.to = to;
         }
-    }
 
-    private void shuffleArray(int[] array) {
-        try {
-            for (int i = array.length - 1; i > 0; i--) {
-                int index = random.nextInt(i + 1);
-                int temp = array[index];
-                array[index] = array[i];
-                array[i] = temp;
+        @Override
+        protected void compute() {
+            // A single level is already a sizeable unit of work, so split down to one seed per task
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(seeds, width, height, strategyFactory, results, from, mid),
+                        new BatchTask(seeds, width, height, strategyFactory, results, mid, to));
+                return;
             }
-        } catch (Exception e) {
-            System.err.println("Error shuffling array: " + e.getMessage());
+            long seed = seeds[from];
+            long start = System.nanoTime();
+            DungeonMap map = new DungeonGenerator(width, height, seed, strategyFactory.get()).generate();
+            results[from] = new DungeonBatchResult(seed, map, System.nanoTime() - start);
         }
     }
-}
\ No newline at end of file
+}
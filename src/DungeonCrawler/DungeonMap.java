@@ -1,48 +1,170 @@
 package DungeonCrawler;
 
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 
+/**
+ * Tile storage for one dungeon level. Tiles are kept in flat primitive arrays
+ * indexed {@code x * height + y}, matching the column-by-column scans used
+ * throughout the game: one byte per tile for the {@link TileType} ordinal, a
+ * bitset for explored tiles, and a visit-time layer whose chunks are only
+ * allocated once a tile inside them has been visited.
+ *
+ * Per-type tile lists are built on first use and kept sorted in the same
+ * column-by-column order, then updated in place by {@link #setTileType}, so
+ * "all ROOM tiles" or "how many DOOR tiles" no longer needs a full-grid scan.
+ */
 public class DungeonMap {
+    private static final TileType[] TILE_TYPES = TileType.values();
+    private static final int VISIT_CHUNK_SHIFT = 10;
+    private static final int VISIT_CHUNK_SIZE = 1 << VISIT_CHUNK_SHIFT;
+    /** Bits per tile in the binary save layout; enough for every {@link TileType}. */
+    static final int TILE_BITS = 3;
+    /** {@code visitTimeBase} before the first visit; the first visit's time becomes the base. */
+    private static final long NO_VISIT_TIME_BASE = Long.MIN_VALUE;
+
     private int width;
     private int height;
-    private TileType[][] grid;
-    private boolean[][] explored;
+    private byte[] tiles;
+    private long[] explored;
     private int keyX = -1;
     private int keyY = -1;
     private Map<String, Integer> actionCounts = new HashMap<>();
     private Map<String, Long> actionTimestamps = new HashMap<>();
-    private long[][] visitTimes;
+    private long lastActionTime;
+    // Visit times are stored as (millis - visitTimeBase + 1) so that 0 means "never visited".
+    // Times are on the engine's clock, never the wall clock, so saves and replays carry none.
+    private long visitTimeBase;
+    private int[][] visitTimeChunks;
+    // Sorted tile indices per TileType ordinal, built lazily; null until first queried
+    private int[][] tileIndex;
+    private int[] tileIndexSize;
+    private OccupancyGrid occupancy;
+    private TileChangeListener[] tileChangeListeners = new TileChangeListener[0];
+    // Copy-on-write after snapshot(): a shared layer is copied before its first write
+    private boolean tilesShared;
+    private boolean exploredShared;
+    private boolean actionsShared;
+    private boolean visitChunksShared;
+    private boolean[] sharedVisitChunks;
 
     public DungeonMap(int width, int height) {
-        this.width = width;
-        this.height = height;
-        this.grid = new TileType[width][height];
-        this.explored = new boolean[width][height];
-        this.visitTimes = new long[width][height];
+        allocate(width, height);
+        Arrays.fill(tiles, (byte) TileType.WALL.ordinal());
+    }
+
+    public DungeonMap(TileType[][] grid) {
+        allocate(grid.length, grid[0].length);
         for (int x = 0; x < width; x++) {
+            TileType[] column = grid[x];
+            int base = x * height;
             for (int y = 0; y < height; y++) {
-                grid[x][y] = TileType.WALL;
-                explored[x][y] = false;
-                visitTimes[x][y] = 0;
+                tiles[base + y] = (byte) column[y].ordinal();
             }
         }
     }
 
-    public DungeonMap(TileType[][] grid) {
-        this.width = grid.length;
-        this.height = grid[0].length;
-        this.grid = grid;
-        this.explored = new boolean[width][height];
-        this.visitTimes = new long[width][height];
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                explored[x][y] = false;
-                visitTimes[x][y] = 0;
+    private DungeonMap(DungeonMap source) {
+        this.width = source.width;
+        this.height = source.height;
+        this.tiles = source.tiles;
+        this.explored = source.explored;
+        this.keyX = source.keyX;
+        this.keyY = source.keyY;
+        this.actionCounts = source.actionCounts;
+        this.actionTimestamps = source.actionTimestamps;
+        this.lastActionTime = source.lastActionTime;
+        this.visitTimeBase = source.visitTimeBase;
+        this.visitTimeChunks = source.visitTimeChunks;
+        this.tileIndex = new int[TILE_TYPES.length][];
+        this.tileIndexSize = new int[TILE_TYPES.length];
+        markShared();
+        source.markShared();
+    }
+
+    /**
+     * A copy of this map's tiles, explored bits, visit times and action
+     * counters as they are now, for saving while play goes on. Nothing is
+     * copied up front: both maps share their layers until one of them writes
+     * to one, which copies just that layer (visit times per chunk). The copy
+     * has its own empty occupancy grid and no tile listener.
+     */
+    public DungeonMap snapshot() {
+        return new DungeonMap(this);
+    }
+
+    private void markShared() {
+        tilesShared = true;
+        exploredShared = true;
+        actionsShared = true;
+        visitChunksShared = true;
+    }
+
+    private void ownTiles() {
+        if (tilesShared) {
+            tiles = tiles.clone();
+            tilesShared = false;
+        }
+    }
+
+    private void ownExplored() {
+        if (exploredShared) {
+            explored = explored.clone();
+            exploredShared = false;
+        }
+    }
+
+    private void ownActions() {
+        if (actionsShared) {
+            actionCounts = new HashMap<>(actionCounts);
+            actionTimestamps = new HashMap<>(actionTimestamps);
+            actionsShared = false;
+        }
+    }
+
+    /** Makes the chunk holding {@code chunkIndex} safe to write, copying it if it is shared. */
+    private void ownVisitChunk(int chunkIndex) {
+        if (visitChunksShared) {
+            visitTimeChunks = visitTimeChunks.clone();
+            sharedVisitChunks = new boolean[visitTimeChunks.length];
+            for (int i = 0; i < visitTimeChunks.length; i++) {
+                sharedVisitChunks[i] = visitTimeChunks[i] != null;
             }
+            visitChunksShared = false;
+        }
+        if (sharedVisitChunks != null && sharedVisitChunks[chunkIndex]) {
+            visitTimeChunks[chunkIndex] = visitTimeChunks[chunkIndex].clone();
+            sharedVisitChunks[chunkIndex] = false;
+        }
+    }
+
+    private void allocate(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        this.tiles = new byte[size];
+        this.explored = new long[(size + 63) >>> 6];
+        this.visitTimeBase = NO_VISIT_TIME_BASE;
+        this.visitTimeChunks = new int[(size + VISIT_CHUNK_SIZE - 1) >>> VISIT_CHUNK_SHIFT][];
+        this.tileIndex = new int[TILE_TYPES.length][];
+        this.tileIndexSize = new int[TILE_TYPES.length];
+        this.actionCounts = new HashMap<>();
+        this.actionTimestamps = new HashMap<>();
+        this.tilesShared = false;
+        this.exploredShared = false;
+        this.actionsShared = false;
+        this.visitChunksShared = false;
+        this.sharedVisitChunks = null;
+        if (occupancy != null) {
+            occupancy.clear();
         }
+        this.occupancy = new OccupancyGrid(width, height);
     }
 
     public int getWidth() { return width; }
@@ -50,52 +172,208 @@ public class DungeonMap {
 
     public TileType getTileType(int x, int y) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            return grid[x][y];
+            return TILE_TYPES[tiles[x * height + y]];
         }
         return TileType.WALL;
     }
 
     public void setTileType(int x, int y, TileType type) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            grid[x][y] = type;
+            int index = x * height + y;
+            int previous = tiles[index];
+            if (previous == type.ordinal()) return;
+            ownTiles();
+            tiles[index] = (byte) type.ordinal();
+            removeFromTileIndex(previous, index);
+            addToTileIndex(type.ordinal(), index);
+            fireTileChanged(x, y);
+        }
+    }
+
+    public void addTileChangeListener(TileChangeListener listener) {
+        if (listener == null) return;
+        TileChangeListener[] listeners = Arrays.copyOf(tileChangeListeners, tileChangeListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        tileChangeListeners = listeners;
+    }
+
+    public void removeTileChangeListener(TileChangeListener listener) {
+        for (int i = 0; i < tileChangeListeners.length; i++) {
+            if (tileChangeListeners[i] == listener) {
+                TileChangeListener[] listeners = new TileChangeListener[tileChangeListeners.length - 1];
+                System.arraycopy(tileChangeListeners, 0, listeners, 0, i);
+                System.arraycopy(tileChangeListeners, i + 1, listeners, i, listeners.length - i);
+                tileChangeListeners = listeners;
+                return;
+            }
+        }
+    }
+
+    private void fireTileChanged(int x, int y) {
+        for (TileChangeListener listener : tileChangeListeners) {
+            listener.onTileChanged(x, y);
+        }
+    }
+
+    /** Which entity stands on which tile; entities register through {@link Entity#enterOccupancy}. */
+    public OccupancyGrid getOccupancy() {
+        if (occupancy == null) {
+            occupancy = new OccupancyGrid(width, height);
+        }
+        return occupancy;
+    }
+
+    public int getTileCount(TileType type) {
+        ensureTileIndex(type.ordinal());
+        return tileIndexSize[type.ordinal()];
+    }
+
+    /** X coordinate of the n-th tile of the given type, in column-by-column order. */
+    public int getTileX(TileType type, int n) {
+        return ensureTileIndex(type.ordinal())[n] / height;
+    }
+
+    /** Y coordinate of the n-th tile of the given type, in column-by-column order. */
+    public int getTileY(TileType type, int n) {
+        return ensureTileIndex(type.ordinal())[n] % height;
+    }
+
+    /** Picks a uniformly random tile of the given type, or returns null if there is none. */
+    public int[] getRandomTile(TileType type, Random random) {
+        int count = getTileCount(type);
+        if (count == 0) return null;
+        int index = tileIndex[type.ordinal()][random.nextInt(count)];
+        return new int[]{index / height, index % height};
+    }
+
+    private int[] ensureTileIndex(int ordinal) {
+        int[] indices = tileIndex[ordinal];
+        if (indices == null) {
+            int count = 0;
+            for (byte tile : tiles) {
+                if (tile == ordinal) count++;
+            }
+            indices = new int[Math.max(count, 8)];
+            int n = 0;
+            for (int i = 0; i < tiles.length && n < count; i++) {
+                if (tiles[i] == ordinal) indices[n++] = i;
+            }
+            tileIndex[ordinal] = indices;
+            tileIndexSize[ordinal] = count;
+        }
+        return indices;
+    }
+
+    private void addToTileIndex(int ordinal, int index) {
+        int[] indices = tileIndex[ordinal];
+        if (indices == null) return;
+        int size = tileIndexSize[ordinal];
+        int slot = -(Arrays.binarySearch(indices, 0, size, index) + 1);
+        if (slot < 0) return;
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, size * 2);
+            tileIndex[ordinal] = indices;
         }
+        System.arraycopy(indices, slot, indices, slot + 1, size - slot);
+        indices[slot] = index;
+        tileIndexSize[ordinal] = size + 1;
+    }
+
+    private void removeFromTileIndex(int ordinal, int index) {
+        int[] indices = tileIndex[ordinal];
+        if (indices == null) return;
+        int size = tileIndexSize[ordinal];
+        int slot = Arrays.binarySearch(indices, 0, size, index);
+        if (slot < 0) return;
+        System.arraycopy(indices, slot + 1, indices, slot, size - slot - 1);
+        tileIndexSize[ordinal] = size - 1;
     }
 
     public boolean isExplored(int x, int y) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            return explored[x][y];
+            int index = x * height + y;
+            return (explored[index >>> 6] & (1L << index)) != 0;
         }
         return false;
     }
 
-    public void recordRoomVisit(int x, int y) {
+    /** Marks the tile explored and remembers {@code time}, on the engine's clock, as its latest visit. */
+    public void recordRoomVisit(int x, int y, long time) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            explored[x][y] = true;
-            visitTimes[x][y] = System.currentTimeMillis();
+            int index = x * height + y;
+            long bit = 1L << index;
+            boolean firstVisit = (explored[index >>> 6] & bit) == 0;
+            if (firstVisit) {
+                ownExplored();
+                explored[index >>> 6] |= bit;
+            }
+            setVisitTime(index, time);
+            if (firstVisit) {
+                fireTileChanged(x, y);
+            }
         }
     }
 
     public long getRoomVisitTime(int x, int y) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
-            return visitTimes[x][y];
+            return getVisitTime(x * height + y);
         }
         return 0;
     }
 
-    public void recordPlayerAction(String action) {
+    private long getVisitTime(int index) {
+        int[] chunk = visitTimeChunks[index >>> VISIT_CHUNK_SHIFT];
+        if (chunk == null) return 0;
+        int stored = chunk[index & (VISIT_CHUNK_SIZE - 1)];
+        return stored == 0 ? 0 : visitTimeBase + stored - 1;
+    }
+
+    private void setVisitTime(int index, long time) {
+        int chunkIndex = index >>> VISIT_CHUNK_SHIFT;
+        if (time == 0 && visitTimeChunks[chunkIndex] == null) return;
+        ownVisitChunk(chunkIndex);
+        int[] chunk = visitTimeChunks[chunkIndex];
+        if (time == 0) {
+            chunk[index & (VISIT_CHUNK_SIZE - 1)] = 0;
+            return;
+        }
+        if (chunk == null) {
+            chunk = new int[VISIT_CHUNK_SIZE];
+            visitTimeChunks[chunkIndex] = chunk;
+        }
+        if (visitTimeBase == NO_VISIT_TIME_BASE) {
+            visitTimeBase = time;
+        }
+        long offset = Math.max(0, Math.min(Integer.MAX_VALUE - 1, time - visitTimeBase));
+        chunk[index & (VISIT_CHUNK_SIZE - 1)] = (int) offset + 1;
+    }
+
+    /** Counts {@code action}, taken at {@code time} on the engine's clock. */
+    public void recordPlayerAction(String action, long time) {
+        ownActions();
         actionCounts.put(action, actionCounts.getOrDefault(action, 0) + 1);
-        actionTimestamps.put(action, System.currentTimeMillis());
+        lastActionTime = time;
+        actionTimestamps.put(action, lastActionTime);
     }
 
     public int getActionCount(String action) {
         return actionCounts.getOrDefault(action, 0);
     }
 
+    /** All action counters, read-only. */
+    public Map<String, Integer> getActionCounts() {
+        return Collections.unmodifiableMap(actionCounts);
+    }
+
+    /** Restores a counter, e.g. from an autosave journal, without touching the action times. */
+    public void setActionCount(String action, int count) {
+        ownActions();
+        actionCounts.put(action, count);
+    }
+
+    /** When the last action was taken, on the engine's clock, or 0 before the first. */
     public long getLastActionTime() {
-        return actionTimestamps.values().stream()
-                .mapToLong(Long::longValue)
-                .max()
-                .orElse(System.currentTimeMillis());
+        return actionTimestamps.isEmpty() ? 0 : lastActionTime;
     }
 
     public void setKeyPosition(int x, int y) {
@@ -137,21 +415,20 @@ public class DungeonMap {
     }
 
     private int[] findFarthestRoom(int playerX, int playerY) {
-        int[] farthest = null;
-        double maxDistance = 0;
+        int farthest = -1;
+        long maxDistance = 0;
         
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                if (getTileType(x, y) == TileType.ROOM) {
-                    double dist = Math.sqrt(Math.pow(x - playerX, 2) + Math.pow(y - playerY, 2));
-                    if (dist > maxDistance) {
-                        maxDistance = dist;
-                        farthest = new int[]{x, y};
-                    }
-                }
+        int roomCount = getTileCount(TileType.ROOM);
+        for (int i = 0; i < roomCount; i++) {
+            long dx = getTileX(TileType.ROOM, i) - playerX;
+            long dy = getTileY(TileType.ROOM, i) - playerY;
+            long dist = dx * dx + dy * dy;
+            if (dist > maxDistance) {
+                maxDistance = dist;
+                farthest = i;
             }
         }
-        return farthest;
+        return farthest < 0 ? null : new int[]{getTileX(TileType.ROOM, farthest), getTileY(TileType.ROOM, farthest)};
     }
 
     public void save(PrintWriter writer) {
@@ -161,21 +438,21 @@ public class DungeonMap {
             
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    writer.print(grid[x][y].ordinal() + " ");
+                    writer.print(tiles[x * height + y] + " ");
                 }
                 writer.println();
             }
             
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    writer.print(explored[x][y] ? 1 : 0 + " ");
+                    writer.print((isExplored(x, y) ? 1 : 0) + " ");
                 }
                 writer.println();
             }
             
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    writer.print(visitTimes[x][y] + " ");
+                    writer.print(getVisitTime(x * height + y) + " ");
                 }
                 writer.println();
             }
@@ -201,29 +478,38 @@ public class DungeonMap {
             int newWidth = scanner.nextInt();
             int newHeight = scanner.nextInt();
             
-            this.width = newWidth;
-            this.height = newHeight;
-            this.grid = new TileType[width][height];
-            this.explored = new boolean[width][height];
-            this.visitTimes = new long[width][height];
+            allocate(newWidth, newHeight);
             
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    grid[x][y] = TileType.values()[scanner.nextInt()];
+                    tiles[x * height + y] = (byte) TILE_TYPES[scanner.nextInt()].ordinal();
                 }
             }
             
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    explored[x][y] = scanner.nextInt() == 1;
+                    if (scanner.nextInt() == 1) {
+                        int index = x * height + y;
+                        explored[index >>> 6] |= 1L << index;
+                    }
                 }
             }
             
+            long[] loadedTimes = new long[width * height];
+            long earliest = Long.MAX_VALUE;
             for (int y = 0; y < height; y++) {
                 for (int x = 0; x < width; x++) {
-                    visitTimes[x][y] = scanner.nextLong();
+                    long time = scanner.nextLong();
+                    loadedTimes[x * height + y] = time;
+                    if (time != 0) earliest = Math.min(earliest, time);
                 }
             }
+            if (earliest != Long.MAX_VALUE) {
+                visitTimeBase = earliest;
+            }
+            for (int i = 0; i < loadedTimes.length; i++) {
+                setVisitTime(i, loadedTimes[i]);
+            }
             
             keyX = scanner.nextInt();
             keyY = scanner.nextInt();
@@ -237,14 +523,165 @@ public class DungeonMap {
             }
             
             actionTimestamps.clear();
+            lastActionTime = 0;
             int timeSize = scanner.nextInt();
             for (int i = 0; i < timeSize; i++) {
                 String key = scanner.next();
                 long value = scanner.nextLong();
                 actionTimestamps.put(key, value);
+                lastActionTime = Math.max(lastActionTime, value);
             }
         } catch (Exception e) {
             System.err.println("Error loading map: " + e.getMessage());
         }
     }
+
+    /** Upper bound on the bytes {@link #writeBinary} needs. */
+    public int maxBinarySize() {
+        int size = width * height;
+        int visited = 0;
+        for (int[] chunk : visitTimeChunks) {
+            if (chunk == null) continue;
+            for (int stored : chunk) {
+                if (stored != 0) visited++;
+            }
+        }
+        int actions = 5;
+        for (String action : actionCounts.keySet()) actions += 2 + 3 * action.length() + 5;
+        for (String action : actionTimestamps.keySet()) actions += 2 + 3 * action.length() + 8;
+        return 16 + (size * TILE_BITS + 7) / 8 + explored.length * 8 + 13 + visited * 15 + actions;
+    }
+
+    /**
+     * Writes the map in the binary save layout: size and key position, tiles
+     * packed {@link #TILE_BITS} bits each, the explored bitset as is, visit
+     * times as index gaps and zigzag time deltas between visited tiles, then
+     * the action counters.
+     */
+    public void writeBinary(ByteBuffer out) {
+        out.putInt(width);
+        out.putInt(height);
+        out.putInt(keyX);
+        out.putInt(keyY);
+
+        int size = width * height;
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < size; i++) {
+            bits |= (long) tiles[i] << bitCount;
+            bitCount += TILE_BITS;
+            if (bitCount >= 8) {
+                out.put((byte) bits);
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+        if (bitCount > 0) {
+            out.put((byte) bits);
+        }
+
+        for (long word : explored) {
+            out.putLong(word);
+        }
+
+        out.putLong(visitTimeBase);
+        int visited = 0;
+        for (int i = 0; i < size; i++) {
+            if (getStoredVisitTime(i) != 0) visited++;
+        }
+        SaveFile.putVarLong(out, visited);
+        int previousIndex = -1;
+        long previousStored = 0;
+        for (int i = 0; i < size; i++) {
+            int stored = getStoredVisitTime(i);
+            if (stored == 0) continue;
+            SaveFile.putVarLong(out, i - previousIndex);
+            SaveFile.putVarLong(out, SaveFile.zigZag(stored - previousStored));
+            previousIndex = i;
+            previousStored = stored;
+        }
+
+        SaveFile.putVarLong(out, actionCounts.size());
+        for (Map.Entry<String, Integer> entry : actionCounts.entrySet()) {
+            SaveFile.putString(out, entry.getKey());
+            SaveFile.putVarLong(out, entry.getValue());
+        }
+        SaveFile.putVarLong(out, actionTimestamps.size());
+        for (Map.Entry<String, Long> entry : actionTimestamps.entrySet()) {
+            SaveFile.putString(out, entry.getKey());
+            out.putLong(entry.getValue());
+        }
+    }
+
+    /** Replaces this map with one written by {@link #writeBinary}. */
+    public void readBinary(ByteBuffer in) {
+        int newWidth = in.getInt();
+        int newHeight = in.getInt();
+        if (newWidth <= 0 || newHeight <= 0 || (long) newWidth * newHeight > Integer.MAX_VALUE / TILE_BITS) {
+            throw new IllegalArgumentException("Bad map size " + newWidth + "x" + newHeight);
+        }
+        allocate(newWidth, newHeight);
+        keyX = in.getInt();
+        keyY = in.getInt();
+
+        int size = width * height;
+        long bits = 0;
+        int bitCount = 0;
+        int mask = (1 << TILE_BITS) - 1;
+        for (int i = 0; i < size; i++) {
+            if (bitCount < TILE_BITS) {
+                bits |= (long) (in.get() & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+            int ordinal = (int) (bits & mask);
+            if (ordinal >= TILE_TYPES.length) {
+                throw new IllegalArgumentException("Bad tile type " + ordinal + " at index " + i);
+            }
+            tiles[i] = (byte) ordinal;
+            bits >>>= TILE_BITS;
+            bitCount -= TILE_BITS;
+        }
+
+        for (int i = 0; i < explored.length; i++) {
+            explored[i] = in.getLong();
+        }
+
+        visitTimeBase = in.getLong();
+        long visited = SaveFile.getVarLong(in);
+        int index = -1;
+        long stored = 0;
+        for (long i = 0; i < visited; i++) {
+            index += (int) SaveFile.getVarLong(in);
+            stored += SaveFile.unZigZag(SaveFile.getVarLong(in));
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("Bad visit index " + index);
+            }
+            int chunkIndex = index >>> VISIT_CHUNK_SHIFT;
+            if (visitTimeChunks[chunkIndex] == null) {
+                visitTimeChunks[chunkIndex] = new int[VISIT_CHUNK_SIZE];
+            }
+            visitTimeChunks[chunkIndex][index & (VISIT_CHUNK_SIZE - 1)] = (int) stored;
+        }
+
+        actionCounts.clear();
+        long countSize = SaveFile.getVarLong(in);
+        for (long i = 0; i < countSize; i++) {
+            String key = SaveFile.getString(in);
+            actionCounts.put(key, (int) SaveFile.getVarLong(in));
+        }
+        actionTimestamps.clear();
+        lastActionTime = 0;
+        long timeSize = SaveFile.getVarLong(in);
+        for (long i = 0; i < timeSize; i++) {
+            String key = SaveFile.getString(in);
+            long value = in.getLong();
+            actionTimestamps.put(key, value);
+            lastActionTime = Math.max(lastActionTime, value);
+        }
+    }
+
+    private int getStoredVisitTime(int index) {
+        int[] chunk = visitTimeChunks[index >>> VISIT_CHUNK_SHIFT];
+        return chunk == null ? 0 : chunk[index & (VISIT_CHUNK_SIZE - 1)];
+    }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package DungeonCrawler;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-
+/**
+ * An enemy. While it is held by an {@link EnemyPool} this object is a view
+ * onto its pool slot; otherwise it carries its own state.
+ */
 public class Enemy extends Entity {
     private int health;
     private boolean isBoss;
     private int goldValue;
+    private EnemyPool pool;
+    private int slot = -1;
 
     public Enemy(int x, int y, int health, boolean isBoss) {
         super(x, y);
@@ -25,38 +28,80 @@ public class Enemy extends Entity {
     }
 
     @Override
-    public void render(GraphicsContext gc, double screenX, double screenY) {
-        try {
-            gc.setFill(isBoss ? Color.PURPLE : Color.GREEN);
-            gc.fillRect(screenX, screenY, DungeonCrawlerGame.TILE_SIZE, DungeonCrawlerGame.TILE_SIZE);
-        } catch (Exception e) {
-            System.err.println("Error rendering enemy at (" + x + "," + y + "): " + e.getMessage());
+    public int getX() { return pool != null ? pool.getX(slot) : x; }
+
+    @Override
+    public int getY() { return pool != null ? pool.getY(slot) : y; }
+
+    @Override
+    protected void storePosition(int x, int y) {
+        if (pool != null) {
+            pool.setPosition(slot, x, y);
+        } else {
+            super.storePosition(x, y);
         }
     }
 
-    public int getHealth() { return health; }
+    public int getHealth() { return pool != null ? pool.getHealth(slot) : health; }
     public void setHealth(int health) {
-        this.health = health;
+        if (pool != null) {
+            pool.setHealth(slot, health);
+        } else {
+            this.health = health;
+        }
         if (health <= 0) {
-            alive = false;
+            die();
         }
     }
     public boolean isBoss() { return isBoss; }
     public int getGoldValue() { return goldValue; }
-    public void setAlive(boolean alive) { this.alive = alive; }
+    public void setAlive(boolean alive) {
+        this.alive = alive;
+        if (!alive) {
+            die();
+        }
+    }
 
     public void takeDamage(int damage) {
         try {
             if (damage < 0) {
                 throw new IllegalArgumentException("Damage cannot be negative");
             }
-            health -= damage;
-            if (health <= 0) {
-                alive = false;
-                System.out.println("Enemy defeated at (" + x + "," + y + ")");
+            int remaining = getHealth() - damage;
+            if (pool != null) {
+                pool.setHealth(slot, remaining);
+            } else {
+                health = remaining;
+            }
+            if (remaining <= 0) {
+                die();
+                System.out.println("Enemy defeated at (" + getX() + "," + getY() + ")");
             }
         } catch (Exception e) {
             System.err.println("Error applying damage: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private void die() {
+        alive = false;
+        leaveOccupancy();
+        if (pool != null) {
+            pool.remove(slot);
+        }
+    }
+
+    boolean isPooled() { return pool != null; }
+
+    void bind(EnemyPool pool, int slot) {
+        this.pool = pool;
+        this.slot = slot;
+    }
+
+    void unbind(int x, int y, int health) {
+        this.x = x;
+        this.y = y;
+        this.health = health;
+        this.pool = null;
+        this.slot = -1;
+    }
+}
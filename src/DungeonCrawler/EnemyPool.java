@@ -0,0 +1,111 @@
+package DungeonCrawler;
+
+import java.util.Arrays;
+
+/**
+ * Live enemies stored as parallel primitive arrays (position, health, boss
+ * flag, gold value) so turn processing and rendering walk contiguous memory.
+ * Slots {@code 0..size()-1} are always alive: when an enemy dies its slot is
+ * filled by the last enemy and the pool shrinks by one.
+ *
+ * Each slot also has an {@link Enemy} view for code that works with enemy
+ * objects. A view reads and writes the pool while it is bound; on death its
+ * final state is copied back into the object, so a caller holding a freshly
+ * killed enemy can still read where it died and what it was worth.
+ */
+public class EnemyPool {
+    private int[] xs;
+    private int[] ys;
+    private int[] health;
+    private int[] goldValue;
+    private boolean[] boss;
+    private Enemy[] views;
+    private int size;
+
+    public EnemyPool() {
+        this(16);
+    }
+
+    public EnemyPool(int capacity) {
+        capacity = Math.max(1, capacity);
+        xs = new int[capacity];
+        ys = new int[capacity];
+        health = new int[capacity];
+        goldValue = new int[capacity];
+        boss = new boolean[capacity];
+        views = new Enemy[capacity];
+    }
+
+    /** Moves a live enemy into the pool; its view stays valid until it dies. */
+    public Enemy add(Enemy enemy) {
+        if (enemy == null || !enemy.isAlive() || enemy.isPooled()) return enemy;
+        if (size == xs.length) {
+            grow();
+        }
+        int slot = size++;
+        xs[slot] = enemy.getX();
+        ys[slot] = enemy.getY();
+        health[slot] = enemy.getHealth();
+        goldValue[slot] = enemy.getGoldValue();
+        boss[slot] = enemy.isBoss();
+        views[slot] = enemy;
+        enemy.bind(this, slot);
+        return enemy;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public Enemy get(int slot) { return views[slot]; }
+    public int getX(int slot) { return xs[slot]; }
+    public int getY(int slot) { return ys[slot]; }
+    public int getHealth(int slot) { return health[slot]; }
+    public int getGoldValue(int slot) { return goldValue[slot]; }
+    public boolean isBoss(int slot) { return boss[slot]; }
+
+    void setPosition(int slot, int x, int y) {
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    void setHealth(int slot, int value) {
+        health[slot] = value;
+    }
+
+    /** Swap-removes the slot, copying its state back into the detached view. */
+    void remove(int slot) {
+        Enemy removed = views[slot];
+        removed.unbind(xs[slot], ys[slot], health[slot]);
+
+        int last = --size;
+        if (slot != last) {
+            xs[slot] = xs[last];
+            ys[slot] = ys[last];
+            health[slot] = health[last];
+            goldValue[slot] = goldValue[last];
+            boss[slot] = boss[last];
+            views[slot] = views[last];
+            views[slot].bind(this, slot);
+        }
+        views[last] = null;
+    }
+
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            views[slot].leaveOccupancy();
+            views[slot].unbind(xs[slot], ys[slot], health[slot]);
+            views[slot] = null;
+        }
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        health = Arrays.copyOf(health, capacity);
+        goldValue = Arrays.copyOf(goldValue, capacity);
+        boss = Arrays.copyOf(boss, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+}
@@ -1,10 +1,10 @@
 package DungeonCrawler;
 
-import javafx.scene.canvas.GraphicsContext;
-
 public abstract class Entity {
     protected int x, y;
     protected boolean alive = true;
+    private OccupancyGrid occupancy;
+    private int occupancyId;
 
     public Entity(int x, int y) {
         try {
@@ -29,12 +29,37 @@ public abstract class Entity {
             if (x < 0 || y < 0) {
                 throw new IllegalArgumentException("Invalid position coordinates");
             }
-            this.x = x;
-            this.y = y;
+            if (occupancy != null) {
+                occupancy.move(occupancyId, getX(), getY(), x, y);
+            }
+            storePosition(x, y);
         } catch (IllegalArgumentException e) {
             System.err.println("Error setting position: " + e.getMessage());
         }
     }
 
-    public abstract void render(GraphicsContext gc, double screenX, double screenY);
+    protected void storePosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public void enterOccupancy(OccupancyGrid grid) {
+        leaveOccupancy();
+        if (grid != null) {
+            occupancy = grid;
+            occupancyId = grid.add(this);
+        }
+    }
+
+    public void leaveOccupancy() {
+        if (occupancy != null) {
+            occupancy.remove(occupancyId, getX(), getY());
+            releaseOccupancy();
+        }
+    }
+
+    void releaseOccupancy() {
+        occupancy = null;
+        occupancyId = 0;
+    }
 }
\ No newline at end of file
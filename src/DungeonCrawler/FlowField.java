@@ -0,0 +1,80 @@
+package DungeonCrawler;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first distance field from the player, limited to the square of
+ * tiles within the aggro radius. It is computed once per turn and every
+ * enemy then steps to a neighbouring tile with a smaller distance, which
+ * lets enemies follow the player around corners and through corridors and
+ * doors at a cost that does not depend on how many enemies there are.
+ *
+ * The field only covers a (2r+1) x (2r+1) window around the player, so its
+ * arrays are allocated once and reused every turn.
+ */
+public class FlowField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int radius;
+    private final int size;
+    private final int[] distances;
+    private final int[] queue;
+    private int originX;
+    private int originY;
+    private DungeonMap map;
+
+    public FlowField(int radius) {
+        this.radius = radius;
+        this.size = radius * 2 + 1;
+        this.distances = new int[size * size];
+        this.queue = new int[size * size];
+    }
+
+    public int getRadius() { return radius; }
+
+    public static boolean isWalkable(TileType type) {
+        return type == TileType.FLOOR || type == TileType.ROOM || type == TileType.DOOR;
+    }
+
+    public void compute(DungeonMap map, int targetX, int targetY) {
+        this.map = map;
+        this.originX = targetX - radius;
+        this.originY = targetY - radius;
+        Arrays.fill(distances, UNREACHABLE);
+
+        int head = 0;
+        int tail = 0;
+        int start = radius * size + radius;
+        distances[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell / size;
+            int cy = cell % size;
+            int next = distances[cell] + 1;
+            tail = visit(cx + 1, cy, next, tail);
+            tail = visit(cx - 1, cy, next, tail);
+            tail = visit(cx, cy + 1, next, tail);
+            tail = visit(cx, cy - 1, next, tail);
+        }
+    }
+
+    private int visit(int cx, int cy, int distance, int tail) {
+        if (cx < 0 || cx >= size || cy < 0 || cy >= size) return tail;
+        int cell = cx * size + cy;
+        if (distances[cell] != UNREACHABLE) return tail;
+        if (!isWalkable(map.getTileType(originX + cx, originY + cy))) return tail;
+        distances[cell] = distance;
+        queue[tail++] = cell;
+        return tail;
+    }
+
+    /** Steps from the given tile to the player, or {@link #UNREACHABLE} if outside the field. */
+    public int getDistance(int x, int y) {
+        int cx = x - originX;
+        int cy = y - originY;
+        if (cx < 0 || cx >= size || cy < 0 || cy >= size) return UNREACHABLE;
+        return distances[cx * size + cy];
+    }
+}
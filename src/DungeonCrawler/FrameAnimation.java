@@ -0,0 +1,20 @@
+package DungeonCrawler;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Something that changes on screen over time, driven by {@link FrameLoop}.
+ */
+public interface FrameAnimation {
+    /**
+     * Advances to the given wall-clock time in milliseconds and returns true
+     * if what the animation shows has changed since the last call.
+     */
+    boolean advance(long now);
+
+    /** Finished animations are dropped from the loop after their last frame. */
+    boolean isFinished();
+
+    /** Draws onto the map after tiles and entities; most animations draw nothing themselves. */
+    default void render(GraphicsContext gc) {}
+}
@@ -0,0 +1,83 @@
+package DungeonCrawler;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.GraphicsContext;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The single per-pulse timer for the game view. Active animations register
+ * here instead of starting timers of their own; on each pulse every
+ * animation is advanced and, if any of them changed or a redraw was
+ * requested, the scene is rendered exactly once. A redraw can also be
+ * booked for a moment in the future, such as the next timed story line.
+ */
+public class FrameLoop extends AnimationTimer {
+    private final List<FrameAnimation> animations = new ArrayList<>();
+    private final Runnable renderer;
+    private boolean renderRequested;
+    private long renderAt = Long.MAX_VALUE;
+    private long framesRendered;
+
+    public FrameLoop(Runnable renderer) {
+        this.renderer = renderer;
+    }
+
+    public void add(FrameAnimation animation) {
+        animations.add(animation);
+        renderRequested = true;
+    }
+
+    /** Asks for a redraw on the next pulse; repeated requests coalesce. */
+    public void requestRender() {
+        renderRequested = true;
+    }
+
+    /** Asks for a redraw once the clock reaches {@code millis}, replacing any earlier booking. */
+    public void requestRenderAt(long millis) {
+        renderAt = millis;
+    }
+
+    public int getActiveAnimations() { return animations.size(); }
+    public long getFramesRendered() { return framesRendered; }
+
+    @Override
+    public void handle(long now) {
+        long millis = System.currentTimeMillis();
+        boolean changed = renderRequested;
+        if (millis >= renderAt) {
+            renderAt = Long.MAX_VALUE;
+            changed = true;
+        }
+        Iterator<FrameAnimation> it = animations.iterator();
+        while (it.hasNext()) {
+            FrameAnimation animation = it.next();
+            try {
+                if (animation.advance(millis)) {
+                    changed = true;
+                }
+                if (animation.isFinished()) {
+                    it.remove();
+                    changed = true;
+                }
+            } catch (Exception e) {
+                System.err.println("Error advancing animation: " + e.getMessage());
+                it.remove();
+            }
+        }
+        if (changed) {
+            renderRequested = false;
+            framesRendered++;
+            renderer.run();
+        }
+    }
+
+    /** Lets every active animation draw its overlay. */
+    public void renderAnimations(GraphicsContext gc) {
+        for (FrameAnimation animation : animations) {
+            animation.render(gc);
+        }
+    }
+}
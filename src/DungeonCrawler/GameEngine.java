@@ -0,0 +1,568 @@
+package DungeonCrawler;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The game rules. Each player input is one {@link #step(Command)} on a
+ * {@link GameState}; anything a front end should show or play is reported to
+ * a {@link GameListener}. Nothing here touches JavaFX, so the engine can be
+ * driven headless at full speed.
+ */
+public class GameEngine {
+    public static final int MAX_LEVELS = 30;
+    public static final int FIREBALL_RANGE = 3;
+    public static final int HEALTH_POTION_HEAL = 50;
+    public static final int ENEMY_AGGRO_RADIUS = 10;
+
+    private final GameState state;
+    private final Supplier<DungeonGenerationStrategy> strategyFactory;
+    private final LevelPipeline levelPipeline;
+    private final GameListener listener;
+    private final FlowField flowField = new FlowField(ENEMY_AGGRO_RADIUS);
+    private final ProjectileSystem projectiles = new ProjectileSystem();
+    private LongSupplier clock = System::currentTimeMillis;
+    private ReplayRecorder recorder;
+    private long turn;
+    private long stepTime;
+
+    /**
+     * @param prefetchLevels build the next level on a background thread rather
+     *                       than on the calling thread; either way the level
+     *                       comes from {@link GameState#getLevelSeed}
+     */
+    public GameEngine(GameState state, Supplier<DungeonGenerationStrategy> strategyFactory,
+                      boolean prefetchLevels, GameListener listener) {
+        this.state = state;
+        this.strategyFactory = strategyFactory;
+        this.levelPipeline = prefetchLevels
+                ? new LevelPipeline(state.mapWidth, state.mapHeight, strategyFactory, state.difficulty)
+                : null;
+        this.listener = listener != null ? listener : GameListener.NONE;
+    }
+
+    public GameState getState() { return state; }
+
+    /** Sets the time source used to stamp and expire drops. */
+    public void setClock(LongSupplier clock) { this.clock = clock; }
+
+    /** Records every accepted command from now on; pass null to stop. */
+    public void setRecorder(ReplayRecorder recorder) { this.recorder = recorder; }
+
+    public ReplayRecorder getRecorder() { return recorder; }
+
+    /** Projectiles fired during the most recent step. */
+    public ProjectileSystem getProjectiles() { return projectiles; }
+
+    /** Number of commands accepted since the engine was created. */
+    public long getTurn() { return turn; }
+
+    /**
+     * Applies one player input. The clock is read once per step, so a replay
+     * that feeds back the recorded times sees exactly the same drops.
+     */
+    public void step(Command command) {
+        boolean playing = command != Command.RESTART_LEVEL && command != Command.NEW_GAME;
+        if (playing && state.gameOver) return;
+
+        stepTime = clock.getAsLong();
+        projectiles.clear();
+        if (recorder != null) {
+            recorder.record(turn, stepTime, command);
+        }
+        state.goldDrops.expire(stepTime);
+        state.healthPotions.expire(stepTime);
+
+        switch (command) {
+            case MOVE_UP:
+                state.lastDirection = 'W';
+                handleMovement(state.playerX, state.playerY - 1);
+                break;
+            case MOVE_DOWN:
+                state.lastDirection = 'S';
+                handleMovement(state.playerX, state.playerY + 1);
+                break;
+            case MOVE_LEFT:
+                state.lastDirection = 'A';
+                handleMovement(state.playerX - 1, state.playerY);
+                break;
+            case MOVE_RIGHT:
+                state.lastDirection = 'D';
+                handleMovement(state.playerX + 1, state.playerY);
+                break;
+            case FIREBALL:
+                shootFireball();
+                break;
+            case USE_POTION:
+                useHealthPotion();
+                break;
+            case RESTART_LEVEL:
+                restartLevel();
+                break;
+            case NEW_GAME:
+                startNewGame();
+                break;
+            case DESCEND:
+                descend();
+                break;
+        }
+
+        turn++;
+        if (recorder != null) {
+            recorder.afterStep(turn, state);
+        }
+    }
+
+    /** Removes drops whose lifetime has run out. */
+    public void expireDrops() {
+        long now = clock.getAsLong();
+        state.goldDrops.expire(now);
+        state.healthPotions.expire(now);
+    }
+
+    /** Tells any timed story lines that have come due. */
+    public void updateStory() {
+        if (state.storyTeller != null) {
+            state.storyTeller.tick(clock.getAsLong());
+        }
+    }
+
+    /** When {@link #updateStory} next has a timed story line to tell, on the engine's clock. */
+    public long getNextStoryDeadline() {
+        return state.storyTeller != null ? state.storyTeller.getNextDeadline() : Long.MAX_VALUE;
+    }
+
+    /** Counts an action on the map and lets the story react to it. */
+    private void recordAction(DungeonMap map, String action) {
+        map.recordPlayerAction(action, stepTime);
+        if (state.storyTeller != null) {
+            state.storyTeller.onAction(action, stepTime);
+        }
+    }
+
+    private void handleMovement(int newX, int newY) {
+        if (isValidMove(newX, newY)) {
+            state.playerX = newX;
+            state.playerY = newY;
+            listener.onEvent(GameEvent.FOOTSTEP);
+            state.dungeonMap.recordRoomVisit(newX, newY, stepTime);
+            state.storyTeller.onTileEntered(newX, newY, stepTime);
+            recordAction(state.dungeonMap, "move");
+            moveEnemies();
+            checkKeyPickup();
+            checkItemCollection();
+            checkLevelTransition();
+        }
+    }
+
+    public void initializeLevel() {
+        try {
+            PreparedLevel level;
+            if (levelPipeline != null) {
+                level = levelPipeline.take(state.currentLevel, state.getLevelSeed(state.currentLevel));
+            } else {
+                level = PreparedLevel.build(state.currentLevel, state.mapWidth, state.mapHeight,
+                        state.getLevelSeed(state.currentLevel), strategyFactory.get(), state.difficulty);
+            }
+            state.dungeonMap = level.getMap();
+            state.storyTeller = new StoryTeller(state.dungeonMap);
+            state.enemies = level.getEnemies();
+            state.goldDrops.clear();
+            state.healthPotions.clear();
+            state.hasKey = false;
+            state.keyCollected = false;
+            state.regularEnemyKills = 0;
+            state.bossKilled = false;
+            state.playerX = level.getStartX();
+            state.playerY = level.getStartY();
+            state.entryX = state.playerX;
+            state.entryY = state.playerY;
+            state.storyTeller.onTileEntered(state.playerX, state.playerY, clock.getAsLong());
+            prefetchNextLevel();
+        } catch (Exception e) {
+            System.err.println("Error initializing level " + state.currentLevel + ": " + e.getMessage());
+            state.errorMessage = "Failed to load level " + state.currentLevel + "!";
+            state.gameOver = true;
+            listener.onError("Level Error", "Failed to initialize level", e.getMessage());
+        }
+    }
+
+    public void prefetchNextLevel() {
+        if (levelPipeline != null && state.currentLevel < MAX_LEVELS
+                && !state.levelArchive.contains(state.currentLevel + 1)) {
+            levelPipeline.prefetch(state.currentLevel + 1, state.getLevelSeed(state.currentLevel + 1));
+        }
+    }
+
+    private void findPlayerStartPosition() {
+        try {
+            if (state.dungeonMap == null) {
+                throw new IllegalStateException("Dungeon map is null");
+            }
+            int[] start = PreparedLevel.findStartPosition(state.dungeonMap);
+            state.playerX = start[0];
+            state.playerY = start[1];
+        } catch (Exception e) {
+            System.err.println("Error finding player start position: " + e.getMessage());
+            state.errorMessage = "No valid start position!";
+            state.gameOver = true;
+            listener.onError("Position Error", "No valid start position", e.getMessage());
+        }
+    }
+
+    private void spawnEnemies() {
+        try {
+            if (state.enemies == null) {
+                state.enemies = new EnemyPool();
+            }
+            PreparedLevel.spawnEnemies(state.dungeonMap, state.currentLevel, state.playerX, state.playerY,
+                    state.random, state.enemies, state.difficulty);
+        } catch (Exception e) {
+            System.err.println("Error spawning enemies: " + e.getMessage());
+            state.errorMessage = "Failed to spawn enemies!";
+            state.gameOver = true;
+            listener.onError("Enemy Spawn Error", "Failed to spawn enemies", e.getMessage());
+        }
+    }
+
+    private boolean isValidMove(int x, int y) {
+        try {
+            DungeonMap map = state.dungeonMap;
+            return x >= 0 && x < map.getWidth() &&
+                    y >= 0 && y < map.getHeight() &&
+                    map.getTileType(x, y) != TileType.WALL &&
+                    !isEnemyAt(x, y);
+        } catch (Exception e) {
+            System.err.println("Error checking valid move: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isEnemyAt(int x, int y) {
+        try {
+            return state.dungeonMap != null && state.dungeonMap.getOccupancy().isOccupied(x, y);
+        } catch (Exception e) {
+            System.err.println("Error checking enemy position: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void moveEnemies() {
+        try {
+            EnemyPool enemies = state.enemies;
+            if (enemies == null) {
+                System.out.println("Enemies is null, skipping enemy movement");
+                return;
+            }
+
+            flowField.compute(state.dungeonMap, state.playerX, state.playerY);
+
+            for (int i = 0; i < enemies.size(); i++) {
+                int distance = flowField.getDistance(enemies.getX(i), enemies.getY(i));
+                if (distance == FlowField.UNREACHABLE) {
+                    continue;
+                }
+
+                if (distance > 1) {
+                    stepEnemyTowardPlayer(enemies.get(i), distance);
+                }
+
+                if (Math.abs(enemies.getX(i) - state.playerX) + Math.abs(enemies.getY(i) - state.playerY) == 1) {
+                    boolean boss = enemies.isBoss(i);
+                    int damage = boss ? 15 : 5;
+                    state.playerHealth -= damage;
+                    recordAction(state.dungeonMap, "damage");
+                    state.storyTeller.addStoryFragment("Hit by " + (boss ? "boss" : "enemy") + " for " + damage + " damage!");
+                    if (state.playerHealth <= 0) {
+                        state.gameOver = true;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error moving enemies: " + e.getMessage());
+            state.errorMessage = "Error moving enemies!";
+            listener.onError("Enemy Movement Error", "Failed to move enemies", e.getMessage());
+        }
+    }
+
+    private void stepEnemyTowardPlayer(Enemy enemy, int distance) {
+        int x = enemy.getX();
+        int y = enemy.getY();
+        int choices = 0;
+        int chosen = -1;
+        for (int dir = 0; dir < 4; dir++) {
+            int nx = x + (dir == 0 ? 1 : dir == 1 ? -1 : 0);
+            int ny = y + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+            if (flowField.getDistance(nx, ny) < distance && isValidEnemyMove(nx, ny)) {
+                // Pick uniformly among equally good steps so enemies don't all hug one wall
+                choices++;
+                if (state.random.nextInt(choices) == 0) {
+                    chosen = dir;
+                }
+            }
+        }
+        if (chosen >= 0) {
+            enemy.setPosition(x + (chosen == 0 ? 1 : chosen == 1 ? -1 : 0),
+                    y + (chosen == 2 ? 1 : chosen == 3 ? -1 : 0));
+        }
+    }
+
+    private boolean isValidEnemyMove(int x, int y) {
+        try {
+            DungeonMap map = state.dungeonMap;
+            return x >= 0 && x < map.getWidth() &&
+                    y >= 0 && y < map.getHeight() &&
+                    FlowField.isWalkable(map.getTileType(x, y)) &&
+                    !isEnemyAt(x, y) && !(x == state.playerX && y == state.playerY);
+        } catch (Exception e) {
+            System.err.println("Error checking valid enemy move: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void checkItemCollection() {
+        try {
+            GoldDrop gold;
+            while ((gold = state.goldDrops.takeAt(state.playerX, state.playerY)) != null) {
+                state.playerGold += gold.getAmount();
+                state.storyTeller.addStoryFragment("Collected " + gold.getAmount() + " gold!");
+                listener.onEvent(GameEvent.GOLD_COLLECTED);
+                state.goldDrops.release(gold);
+            }
+
+            HealthPotion potion;
+            while ((potion = state.healthPotions.takeAt(state.playerX, state.playerY)) != null) {
+                state.playerHealthPotions++;
+                state.storyTeller.addStoryFragment("Picked up a health potion!");
+                listener.onEvent(GameEvent.POTION_COLLECTED);
+                state.healthPotions.release(potion);
+            }
+        } catch (Exception e) {
+            System.err.println("Error checking item collection: " + e.getMessage());
+            state.errorMessage = "Error collecting items!";
+        }
+    }
+
+    private void useHealthPotion() {
+        try {
+            if (state.playerHealthPotions > 0) {
+                state.playerHealth = Math.min(100, state.playerHealth + HEALTH_POTION_HEAL);
+                state.playerHealthPotions--;
+                listener.onEvent(GameEvent.POTION_USED);
+                state.storyTeller.addStoryFragment("Used health potion! +" + HEALTH_POTION_HEAL + " HP");
+            } else {
+                state.errorMessage = "No potions available!";
+            }
+        } catch (Exception e) {
+            System.err.println("Error using health potion: " + e.getMessage());
+            state.errorMessage = "Error using potion!";
+        }
+    }
+
+    private void shootFireball() {
+        try {
+            DungeonMap map = state.dungeonMap;
+            if (state.enemies == null) {
+                System.out.println("No enemies list available!");
+                state.errorMessage = "No enemies to target!";
+                return;
+            }
+
+            listener.onEvent(GameEvent.FIREBALL_CAST);
+
+            int dx = 0, dy = 0;
+            switch (state.lastDirection) {
+                case 'W': dy = -1; break;
+                case 'S': dy = 1; break;
+                case 'A': dx = -1; break;
+                case 'D': dx = 1; break;
+                default: dx = 1; break;
+            }
+
+            Projectile fireball = projectiles.launch(map, state.playerX + 0.5, state.playerY + 0.5,
+                    dx, dy, FIREBALL_RANGE);
+            if (fireball.getTarget() instanceof Enemy) {
+                Enemy enemy = (Enemy) fireball.getTarget();
+                int damage = 25;
+                // Point-blank shots hit twice as hard
+                if (fireball.getPathLength() == 1) damage *= 2;
+                enemy.takeDamage(damage);
+                recordAction(map, "fireball");
+
+                if (!enemy.isAlive()) {
+                    onEnemyKilled(enemy);
+                }
+            }
+
+            listener.onProjectile(fireball);
+        } catch (Exception e) {
+            System.err.println("Error shooting fireball: " + e.getMessage());
+            state.errorMessage = "Fireball failed!";
+        }
+    }
+
+    private void onEnemyKilled(Enemy enemy) {
+        long dropTime = stepTime;
+        state.goldDrops.spawn(enemy.getX(), enemy.getY(), dropTime).setAmount(enemy.getGoldValue());
+
+        state.enemiesKilled++;
+        if (enemy.isBoss() || state.enemiesKilled % 3 == 0) {
+            state.healthPotions.spawn(enemy.getX(), enemy.getY(), dropTime);
+        }
+
+        if (enemy.isBoss()) {
+            state.bossKilled = true;
+            state.storyTeller.addKillStory(true);
+        } else {
+            state.regularEnemyKills++;
+            state.storyTeller.addKillStory(false);
+        }
+    }
+
+    private void checkKeyPickup() {
+        try {
+            DungeonMap map = state.dungeonMap;
+            int requiredKills = state.difficulty.getRequiredKills(state.currentLevel);
+            if (!state.hasKey && state.enemies != null && state.regularEnemyKills >= requiredKills && state.bossKilled) {
+                state.hasKey = true;
+                if (state.storyTeller != null) {
+                    state.storyTeller.addKeyStory();
+                }
+                if (map != null) {
+                    int[] keyPos = map.getRandomTile(TileType.ROOM, state.random);
+                    if (keyPos != null) {
+                        map.setKeyPosition(keyPos[0], keyPos[1]);
+                    } else {
+                        System.err.println("No rooms found for key placement!");
+                        map.setKeyPosition(state.playerX, state.playerY);
+                    }
+                }
+            }
+            if (state.hasKey && !state.keyCollected && map != null &&
+                    state.playerX == map.getKeyX() && state.playerY == map.getKeyY()) {
+                state.keyCollected = true;
+                listener.onEvent(GameEvent.KEY_COLLECTED);
+                if (state.storyTeller != null) {
+                    state.storyTeller.addStoryFragment("You picked up the golden key!");
+                }
+                map.spawnDoorAtFarthestRoom(state.playerX, state.playerY);
+            }
+        } catch (Exception e) {
+            System.err.println("Error checking key pickup: " + e.getMessage());
+            state.errorMessage = "Error with key pickup!";
+            listener.onError("Key Pickup Error", "Failed to handle key pickup", e.getMessage());
+        }
+    }
+
+    private void checkLevelTransition() {
+        try {
+            if (state.hasKey && state.keyCollected && state.dungeonMap != null &&
+                    state.dungeonMap.getTileType(state.playerX, state.playerY) == TileType.LEVEL_UP_DOOR) {
+                listener.onEvent(GameEvent.DOOR_OPENED);
+                if (state.currentLevel < MAX_LEVELS) {
+                    state.levelArchive.store(state);
+                    state.currentLevel++;
+                    enterLevel();
+                } else {
+                    state.gameOver = true;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error checking level transition: " + e.getMessage());
+            state.errorMessage = "Error advancing level!";
+            listener.onError("Level Transition Error", "Failed to advance level", e.getMessage());
+        }
+    }
+
+    /** Goes back to the floor below from the tile where the player arrived on this one. */
+    private void descend() {
+        try {
+            if (state.currentLevel <= 1 || state.playerX != state.entryX || state.playerY != state.entryY
+                    || !state.levelArchive.contains(state.currentLevel - 1)) {
+                return;
+            }
+            listener.onEvent(GameEvent.DOOR_OPENED);
+            state.levelArchive.store(state);
+            state.currentLevel--;
+            enterLevel();
+        } catch (Exception e) {
+            System.err.println("Error going down a level: " + e.getMessage());
+            state.errorMessage = "Error going down a level!";
+            listener.onError("Level Transition Error", "Failed to go down a level", e.getMessage());
+        }
+    }
+
+    /** Brings the current level back from the archive if it was visited before, otherwise builds it. */
+    private void enterLevel() {
+        if (state.levelArchive.restore(state.currentLevel, state, stepTime)) {
+            state.storyTeller.addStoryFragment("You are back on level " + state.currentLevel + ".");
+            prefetchNextLevel();
+        } else {
+            initializeLevel();
+        }
+    }
+
+    public void restartLevel() {
+        try {
+            state.playerHealth = 100;
+            state.gameOver = false;
+            state.errorMessage = null;
+            state.keyCollected = false;
+            state.hasKey = false;
+            state.regularEnemyKills = 0;
+            state.bossKilled = false;
+            state.goldDrops.clear();
+            state.healthPotions.clear();
+            if (state.enemies != null) {
+                state.enemies.clear();
+            }
+            state.dungeonMap.getOccupancy().clear();
+            findPlayerStartPosition();
+            state.entryX = state.playerX;
+            state.entryY = state.playerY;
+            spawnEnemies();
+        } catch (Exception e) {
+            System.err.println("Error restarting level: " + e.getMessage());
+            state.errorMessage = "Error restarting level!";
+            state.gameOver = true;
+            listener.onError("Restart Error", "Failed to restart level", e.getMessage());
+        }
+    }
+
+    public void startNewGame() {
+        try {
+            state.currentLevel = 1;
+            state.playerHealth = 100;
+            state.gameOver = false;
+            state.errorMessage = null;
+            state.keyCollected = false;
+            state.hasKey = false;
+            state.regularEnemyKills = 0;
+            state.bossKilled = false;
+            state.playerGold = 0;
+            state.playerHealthPotions = 0;
+            state.enemiesKilled = 0;
+            state.lastDirection = 'D';
+            state.goldDrops.clear();
+            state.healthPotions.clear();
+            state.levelArchive.clear();
+            initializeLevel();
+        } catch (Exception e) {
+            System.err.println("Error starting new game: " + e.getMessage());
+            state.errorMessage = "Error starting new game!";
+            state.gameOver = true;
+            listener.onError("New Game Error", "Failed to start new game", e.getMessage());
+        }
+    }
+
+    /** Current time on the engine's clock, for stamping loaded drops. */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public void shutdown() {
+        if (levelPipeline != null) {
+            levelPipeline.shutdown();
+        }
+    }
+}
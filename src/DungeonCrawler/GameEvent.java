@@ -0,0 +1,15 @@
+package DungeonCrawler;
+
+/**
+ * Things that happen during a turn which a front end may want to play a
+ * sound or effect for. The rules do not depend on anyone listening.
+ */
+public enum GameEvent {
+    FOOTSTEP,
+    GOLD_COLLECTED,
+    POTION_COLLECTED,
+    POTION_USED,
+    FIREBALL_CAST,
+    KEY_COLLECTED,
+    DOOR_OPENED
+}
@@ -0,0 +1,25 @@
+package DungeonCrawler;
+
+/**
+ * Receives notifications from {@link GameEngine}. All methods are called on
+ * the thread that drives the engine.
+ */
+public interface GameListener {
+    GameListener NONE = new GameListener() {
+        @Override
+        public void onEvent(GameEvent event) {}
+
+        @Override
+        public void onProjectile(Projectile projectile) {}
+
+        @Override
+        public void onError(String title, String header, String message) {}
+    };
+
+    void onEvent(GameEvent event);
+
+    /** A projectile was fired and has already been resolved against the map. */
+    void onProjectile(Projectile projectile);
+
+    void onError(String title, String header, String message);
+}
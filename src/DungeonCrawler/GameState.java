@@ -0,0 +1,298 @@
+package DungeonCrawler;
+
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Everything the rules need to know about a game in progress. It holds no
+ * JavaFX objects, so a game can be stepped, saved and inspected headless;
+ * {@link GameEngine} is the only thing that mutates it.
+ */
+public class GameState {
+    public static final long DROP_LIFETIME = 30000;
+
+    final int mapWidth;
+    final int mapHeight;
+    final long seed;
+    final Random random;
+    final Difficulty difficulty;
+    DungeonMap dungeonMap;
+    StoryTeller storyTeller;
+    EnemyPool enemies;
+    final DropManager<GoldDrop> goldDrops = new DropManager<>(GoldDrop::new, DROP_LIFETIME);
+    final DropManager<HealthPotion> healthPotions = new DropManager<>(HealthPotion::new, DROP_LIFETIME);
+    int playerX, playerY;
+    // Where the player arrived on this floor; the way back down
+    int entryX = -1, entryY = -1;
+    LevelArchive levelArchive = new LevelArchive();
+    int currentLevel = 1;
+    int playerHealth = 100;
+    int playerGold;
+    int playerHealthPotions;
+    int enemiesKilled;
+    int regularEnemyKills;
+    boolean bossKilled;
+    boolean hasKey;
+    boolean keyCollected;
+    boolean gameOver;
+    char lastDirection = 'D';
+    String errorMessage;
+
+    /**
+     * Every random decision in a game, including level layouts, derives from
+     * {@code seed}, so the same seed and inputs always replay the same game.
+     */
+    public GameState(int mapWidth, int mapHeight, long seed) {
+        this(mapWidth, mapHeight, seed, Difficulty.DEFAULT);
+    }
+
+    public GameState(int mapWidth, int mapHeight, long seed, Difficulty difficulty) {
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.difficulty = difficulty;
+    }
+
+    public long getSeed() { return seed; }
+    public Difficulty getDifficulty() { return difficulty; }
+
+    /** Seed for generating the given level, independent of when it is built. */
+    public long getLevelSeed(int level) {
+        return seed ^ (level * 0x9E3779B97F4A7C15L);
+    }
+
+    public int getMapWidth() { return mapWidth; }
+    public int getMapHeight() { return mapHeight; }
+    public DungeonMap getDungeonMap() { return dungeonMap; }
+    public StoryTeller getStoryTeller() { return storyTeller; }
+    public EnemyPool getEnemies() { return enemies; }
+    public DropManager<GoldDrop> getGoldDrops() { return goldDrops; }
+    public DropManager<HealthPotion> getHealthPotions() { return healthPotions; }
+    public int getPlayerX() { return playerX; }
+    public int getPlayerY() { return playerY; }
+    public int getEntryX() { return entryX; }
+    public int getEntryY() { return entryY; }
+    public LevelArchive getLevelArchive() { return levelArchive; }
+    public int getCurrentLevel() { return currentLevel; }
+    public int getPlayerHealth() { return playerHealth; }
+    public int getPlayerGold() { return playerGold; }
+    public int getPlayerHealthPotions() { return playerHealthPotions; }
+    public int getEnemiesKilled() { return enemiesKilled; }
+    public int getRegularEnemyKills() { return regularEnemyKills; }
+    public boolean isBossKilled() { return bossKilled; }
+    public boolean hasKey() { return hasKey; }
+    public boolean isKeyCollected() { return keyCollected; }
+    public boolean isGameOver() { return gameOver; }
+    public char getLastDirection() { return lastDirection; }
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    /**
+     * A 64-bit fingerprint of everything the rules depend on. Wall-clock
+     * bookkeeping that only feeds the story text (visit and action times) is
+     * left out, and drops are combined order-independently because expiry can
+     * batch differently from run to run without changing the game.
+     */
+    public long stateHash() {
+        long h = 0xCBF29CE484222325L;
+        h = mix(h, currentLevel);
+        h = mix(h, playerX);
+        h = mix(h, playerY);
+        h = mix(h, playerHealth);
+        h = mix(h, playerGold);
+        h = mix(h, playerHealthPotions);
+        h = mix(h, enemiesKilled);
+        h = mix(h, regularEnemyKills);
+        h = mix(h, (bossKilled ? 1 : 0) | (hasKey ? 2 : 0) | (keyCollected ? 4 : 0) | (gameOver ? 8 : 0));
+        h = mix(h, lastDirection);
+        h = mix(h, entryX);
+        h = mix(h, entryY);
+        h = mix(h, levelArchive.levelMask());
+
+        if (enemies != null) {
+            h = mix(h, enemies.size());
+            for (int i = 0; i < enemies.size(); i++) {
+                h = mix(h, enemies.getX(i));
+                h = mix(h, enemies.getY(i));
+                h = mix(h, enemies.getHealth(i));
+                h = mix(h, enemies.isBoss(i) ? 1 : 0);
+            }
+        }
+
+        long drops = 0;
+        for (int i = 0; i < goldDrops.size(); i++) {
+            GoldDrop gold = goldDrops.get(i);
+            drops += mix(mix(mix(1, gold.getX()), gold.getY()), gold.getAmount());
+        }
+        for (int i = 0; i < healthPotions.size(); i++) {
+            HealthPotion potion = healthPotions.get(i);
+            drops += mix(mix(2, potion.getX()), potion.getY());
+        }
+        h = mix(h, drops);
+
+        if (dungeonMap != null) {
+            h = mix(h, dungeonMap.getKeyX());
+            h = mix(h, dungeonMap.getKeyY());
+            for (int x = 0; x < dungeonMap.getWidth(); x++) {
+                for (int y = 0; y < dungeonMap.getHeight(); y++) {
+                    h = mix(h, dungeonMap.getTileType(x, y).ordinal() | (dungeonMap.isExplored(x, y) ? 8 : 0));
+                }
+            }
+        }
+        return h;
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value;
+        h *= 0x100000001B3L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * A detached copy for saving in the background: scalars, enemies and
+     * drops are copied (a few dozen objects), the map shares its layers
+     * copy-on-write. The copy has no story teller.
+     */
+    public GameState snapshot() {
+        GameState copy = new GameState(mapWidth, mapHeight, seed, difficulty);
+        copy.currentLevel = currentLevel;
+        copy.playerX = playerX;
+        copy.playerY = playerY;
+        copy.playerHealth = playerHealth;
+        copy.playerGold = playerGold;
+        copy.playerHealthPotions = playerHealthPotions;
+        copy.enemiesKilled = enemiesKilled;
+        copy.regularEnemyKills = regularEnemyKills;
+        copy.bossKilled = bossKilled;
+        copy.hasKey = hasKey;
+        copy.keyCollected = keyCollected;
+        copy.gameOver = gameOver;
+        copy.lastDirection = lastDirection;
+        copy.entryX = entryX;
+        copy.entryY = entryY;
+        copy.levelArchive = levelArchive.copy();
+
+        copy.enemies = new EnemyPool();
+        if (enemies != null) {
+            for (int i = 0; i < enemies.size(); i++) {
+                copy.enemies.add(new Enemy(enemies.getX(i), enemies.getY(i), enemies.getHealth(i), enemies.isBoss(i)));
+            }
+        }
+        for (int i = 0; i < goldDrops.size(); i++) {
+            GoldDrop gold = goldDrops.get(i);
+            copy.goldDrops.spawn(gold.getX(), gold.getY(), gold.getSpawnTime()).setAmount(gold.getAmount());
+        }
+        for (int i = 0; i < healthPotions.size(); i++) {
+            HealthPotion potion = healthPotions.get(i);
+            copy.healthPotions.spawn(potion.getX(), potion.getY(), potion.getSpawnTime());
+        }
+        copy.dungeonMap = dungeonMap != null ? dungeonMap.snapshot() : null;
+        return copy;
+    }
+
+    public void save(PrintWriter writer) {
+        writer.println(currentLevel);
+        writer.println(playerX);
+        writer.println(playerY);
+        writer.println(playerHealth);
+        writer.println(playerGold);
+        writer.println(playerHealthPotions);
+        writer.println(enemiesKilled);
+        writer.println(regularEnemyKills);
+        writer.println(bossKilled);
+        writer.println(hasKey);
+        writer.println(keyCollected);
+
+        writer.println(enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            writer.println(enemies.getX(i) + " " + enemies.getY(i) + " 1 " +
+                    enemies.isBoss(i) + " " + enemies.getHealth(i));
+        }
+
+        writer.println(goldDrops.size());
+        for (int i = 0; i < goldDrops.size(); i++) {
+            GoldDrop gold = goldDrops.get(i);
+            writer.println(gold.getX() + " " + gold.getY() + " " +
+                    gold.getAmount() + " " + gold.getSpawnTime());
+        }
+
+        writer.println(healthPotions.size());
+        for (int i = 0; i < healthPotions.size(); i++) {
+            HealthPotion potion = healthPotions.get(i);
+            writer.println(potion.getX() + " " + potion.getY() + " " +
+                    potion.getSpawnTime());
+        }
+
+        dungeonMap.save(writer);
+    }
+
+    /**
+     * Replaces this state with a saved game. Drops restart their lifetime at
+     * {@code loadTime}, since the saved spawn times belong to another session.
+     */
+    public void load(Scanner scanner, long loadTime) {
+        currentLevel = scanner.nextInt();
+        playerX = scanner.nextInt();
+        playerY = scanner.nextInt();
+        playerHealth = scanner.nextInt();
+        playerGold = scanner.nextInt();
+        playerHealthPotions = scanner.nextInt();
+        enemiesKilled = scanner.nextInt();
+        regularEnemyKills = scanner.nextInt();
+        bossKilled = scanner.nextBoolean();
+        hasKey = scanner.nextBoolean();
+        keyCollected = scanner.nextBoolean();
+
+        if (enemies == null) {
+            enemies = new EnemyPool();
+        }
+        enemies.clear();
+        int enemyCount = scanner.nextInt();
+        for (int i = 0; i < enemyCount; i++) {
+            int x = scanner.nextInt();
+            int y = scanner.nextInt();
+            boolean alive = scanner.nextInt() == 1;
+            boolean isBoss = scanner.nextBoolean();
+            int health = scanner.nextInt();
+            if (alive) {
+                enemies.add(new Enemy(x, y, health, isBoss));
+            }
+        }
+
+        goldDrops.clear();
+        int goldCount = scanner.nextInt();
+        for (int i = 0; i < goldCount; i++) {
+            int x = scanner.nextInt();
+            int y = scanner.nextInt();
+            int amount = scanner.nextInt();
+            scanner.nextLong();
+            goldDrops.spawn(x, y, loadTime).setAmount(amount);
+        }
+
+        healthPotions.clear();
+        int potionCount = scanner.nextInt();
+        for (int i = 0; i < potionCount; i++) {
+            int x = scanner.nextInt();
+            int y = scanner.nextInt();
+            scanner.nextLong();
+            healthPotions.spawn(x, y, loadTime);
+        }
+
+        dungeonMap = new DungeonMap(mapWidth, mapHeight);
+        dungeonMap.load(scanner);
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).enterOccupancy(dungeonMap.getOccupancy());
+        }
+
+        // Text saves predate revisiting floors
+        levelArchive.clear();
+        entryX = -1;
+        entryY = -1;
+
+        storyTeller = new StoryTeller(dungeonMap);
+        storyTeller.onTileEntered(playerX, playerY, loadTime);
+        gameOver = false;
+    }
+}
@@ -0,0 +1,8 @@
+package DungeonCrawler;
+
+public class GoldDrop extends Drop {
+    private int amount;
+
+    public int getAmount() { return amount; }
+    public void setAmount(int amount) { this.amount = amount; }
+}
@@ -0,0 +1,4 @@
+package DungeonCrawler;
+
+public class HealthPotion extends Drop {
+}
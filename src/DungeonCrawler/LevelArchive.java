@@ -0,0 +1,219 @@
+package DungeonCrawler;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Floors the player has left, so they can be revisited. Each floor is one
+ * compressed blob: the key position, the floor's progress (kills, key and
+ * boss flags), where the player arrived and left, the tiles with their
+ * explored bit run-length encoded along the flat tile index, the enemies
+ * still alive and the drops still on the floor. Mazes have long runs of
+ * wall and unexplored corridor, so a 40x30 floor takes well under a
+ * kilobyte and all {@link GameEngine#MAX_LEVELS} floors stay far below a
+ * megabyte. Visit times and action counters only feed the story and are
+ * not kept; a revisited floor starts a fresh story.
+ */
+public class LevelArchive {
+    private final Map<Integer, byte[]> floors = new TreeMap<>();
+
+    /** Compresses the floor the player is on, replacing any older copy of it. */
+    public void store(GameState state) {
+        DungeonMap map = state.dungeonMap;
+        int size = map.getWidth() * map.getHeight();
+        int enemyCount = state.enemies != null ? state.enemies.size() : 0;
+        ByteBuffer out = ByteBuffer.allocate(64 + size + 5 + enemyCount * 21 + SaveFile.maxDropsSize(state));
+
+        SaveFile.putVarLong(out, map.getWidth());
+        SaveFile.putVarLong(out, map.getHeight());
+        SaveFile.putVarLong(out, SaveFile.zigZag(map.getKeyX()));
+        SaveFile.putVarLong(out, SaveFile.zigZag(map.getKeyY()));
+        SaveFile.putVarLong(out, SaveFile.zigZag(state.entryX));
+        SaveFile.putVarLong(out, SaveFile.zigZag(state.entryY));
+        SaveFile.putVarLong(out, state.playerX);
+        SaveFile.putVarLong(out, state.playerY);
+        SaveFile.putVarLong(out, state.regularEnemyKills);
+        out.put((byte) ((state.bossKilled ? 1 : 0) | (state.hasKey ? 2 : 0) | (state.keyCollected ? 4 : 0)));
+
+        // Runs of (tile | explored << 3); short runs fit in the same byte
+        int height = map.getHeight();
+        int i = 0;
+        while (i < size) {
+            int value = tileValue(map, i, height);
+            int run = 1;
+            while (i + run < size && tileValue(map, i + run, height) == value) {
+                run++;
+            }
+            int extra = run - 1;
+            out.put((byte) (value | Math.min(extra, 15) << 4));
+            if (extra >= 15) {
+                SaveFile.putVarLong(out, extra - 15);
+            }
+            i += run;
+        }
+
+        SaveFile.putVarLong(out, enemyCount);
+        for (int e = 0; e < enemyCount; e++) {
+            SaveFile.putVarLong(out, state.enemies.getX(e));
+            SaveFile.putVarLong(out, state.enemies.getY(e));
+            SaveFile.putVarLong(out, SaveFile.zigZag(state.enemies.getHealth(e)));
+            out.put((byte) (state.enemies.isBoss(e) ? 1 : 0));
+        }
+        SaveFile.writeDrops(out, state);
+
+        floors.put(state.currentLevel, Arrays.copyOf(out.array(), out.position()));
+    }
+
+    public boolean contains(int level) {
+        return floors.containsKey(level);
+    }
+
+    /**
+     * Makes an archived floor the current one, with the player where they
+     * left it, and drops it from the archive. Drops restart their lifetime
+     * at {@code now}. Returns false if the floor is not archived.
+     */
+    public boolean restore(int level, GameState state, long now) {
+        byte[] floor = floors.get(level);
+        if (floor == null) return false;
+        ByteBuffer in = ByteBuffer.wrap(floor);
+
+        int width = (int) SaveFile.getVarLong(in);
+        int height = (int) SaveFile.getVarLong(in);
+        int keyX = (int) SaveFile.unZigZag(SaveFile.getVarLong(in));
+        int keyY = (int) SaveFile.unZigZag(SaveFile.getVarLong(in));
+        int entryX = (int) SaveFile.unZigZag(SaveFile.getVarLong(in));
+        int entryY = (int) SaveFile.unZigZag(SaveFile.getVarLong(in));
+        int playerX = (int) SaveFile.getVarLong(in);
+        int playerY = (int) SaveFile.getVarLong(in);
+        int regularEnemyKills = (int) SaveFile.getVarLong(in);
+        int flags = in.get();
+
+        TileType[] types = TileType.values();
+        TileType[][] grid = new TileType[width][height];
+        boolean[] explored = new boolean[width * height];
+        int i = 0;
+        while (i < explored.length) {
+            int packed = in.get() & 0xFF;
+            int run = (packed >>> 4) + 1;
+            if (run == 16) {
+                run += (int) SaveFile.getVarLong(in);
+            }
+            TileType type = types[packed & 7];
+            boolean seen = (packed & 8) != 0;
+            for (int end = i + run; i < end; i++) {
+                grid[i / height][i % height] = type;
+                explored[i] = seen;
+            }
+        }
+        DungeonMap map = new DungeonMap(grid);
+        for (i = 0; i < explored.length; i++) {
+            if (explored[i]) {
+                map.recordRoomVisit(i / height, i % height, now);
+            }
+        }
+        map.setKeyPosition(keyX, keyY);
+
+        EnemyPool enemies = new EnemyPool();
+        long enemyCount = SaveFile.getVarLong(in);
+        for (long e = 0; e < enemyCount; e++) {
+            int x = (int) SaveFile.getVarLong(in);
+            int y = (int) SaveFile.getVarLong(in);
+            int health = (int) SaveFile.unZigZag(SaveFile.getVarLong(in));
+            enemies.add(new Enemy(x, y, health, in.get() != 0)).enterOccupancy(map.getOccupancy());
+        }
+        SaveFile.readDrops(in, state, now);
+
+        state.dungeonMap = map;
+        state.enemies = enemies;
+        state.entryX = entryX;
+        state.entryY = entryY;
+        state.playerX = playerX;
+        state.playerY = playerY;
+        state.regularEnemyKills = regularEnemyKills;
+        state.bossKilled = (flags & 1) != 0;
+        state.hasKey = (flags & 2) != 0;
+        state.keyCollected = (flags & 4) != 0;
+        state.currentLevel = level;
+        state.storyTeller = new StoryTeller(map);
+        state.storyTeller.onTileEntered(playerX, playerY, now);
+        floors.remove(level);
+        return true;
+    }
+
+    public void clear() {
+        floors.clear();
+    }
+
+    /** Number of floors held. */
+    public int size() {
+        return floors.size();
+    }
+
+    /** Bytes of compressed floor data held. */
+    public long getResidentBytes() {
+        long bytes = 0;
+        for (byte[] floor : floors.values()) {
+            bytes += floor.length;
+        }
+        return bytes;
+    }
+
+    /** Bit {@code n} is set when floor {@code n} is archived. */
+    long levelMask() {
+        long mask = 0;
+        for (int level : floors.keySet()) {
+            mask |= 1L << (level & 63);
+        }
+        return mask;
+    }
+
+    /** A copy sharing the floor blobs, which are never changed once stored. */
+    LevelArchive copy() {
+        LevelArchive copy = new LevelArchive();
+        copy.floors.putAll(floors);
+        return copy;
+    }
+
+    int maxBinarySize() {
+        int size = 5;
+        for (byte[] floor : floors.values()) {
+            size += 10 + floor.length;
+        }
+        return size;
+    }
+
+    /** Writes the floors for a save: count, then level, length and blob for each. */
+    void writeBinary(ByteBuffer out) {
+        SaveFile.putVarLong(out, floors.size());
+        for (Map.Entry<Integer, byte[]> entry : floors.entrySet()) {
+            SaveFile.putVarLong(out, entry.getKey());
+            SaveFile.putVarLong(out, entry.getValue().length);
+            out.put(entry.getValue());
+        }
+    }
+
+    /** Replaces the floors with those written by {@link #writeBinary}. */
+    void readBinary(ByteBuffer in) {
+        floors.clear();
+        long count = SaveFile.getVarLong(in);
+        for (long i = 0; i < count; i++) {
+            int level = (int) SaveFile.getVarLong(in);
+            int length = (int) SaveFile.getVarLong(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException("Bad length for archived level " + level);
+            }
+            byte[] floor = new byte[length];
+            in.get(floor);
+            floors.put(level, floor);
+        }
+    }
+
+    private static int tileValue(DungeonMap map, int index, int height) {
+        int x = index / height;
+        int y = index % height;
+        return map.getTileType(x, y).ordinal() | (map.isExplored(x, y) ? 8 : 0);
+    }
+}
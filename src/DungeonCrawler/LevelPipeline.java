@@ -0,0 +1,101 @@
+package DungeonCrawler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Builds the next level on a background thread while the current one is
+ * played, so the door transition only has to swap in a finished
+ * {@link PreparedLevel}. If the background job has not completed when the
+ * level is needed it is abandoned and the level is built synchronously; those
+ * fallbacks are counted so the latency win can be monitored.
+ */
+public class LevelPipeline {
+    private final int width;
+    private final int height;
+    private final Supplier<DungeonGenerationStrategy> strategyFactory;
+    private final Difficulty difficulty;
+    private final ExecutorService executor;
+    private Future<PreparedLevel> pending;
+    private int pendingLevel = -1;
+    private long pendingSeed;
+    private int prefetchHits;
+    private int synchronousFallbacks;
+
+    public LevelPipeline(int width, int height, Supplier<DungeonGenerationStrategy> strategyFactory) {
+        this(width, height, strategyFactory, Difficulty.DEFAULT);
+    }
+
+    public LevelPipeline(int width, int height, Supplier<DungeonGenerationStrategy> strategyFactory,
+                         Difficulty difficulty) {
+        this.width = width;
+        this.height = height;
+        this.strategyFactory = strategyFactory;
+        this.difficulty = difficulty;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts building the given level in the background, replacing any
+     * prefetch for a different level or seed.
+     */
+    public synchronized void prefetch(int level, long seed) {
+        if (pending != null && pendingLevel == level && pendingSeed == seed) return;
+        cancelPending();
+        DungeonGenerationStrategy strategy = strategyFactory.get();
+        pendingLevel = level;
+        pendingSeed = seed;
+        pending = executor.submit(() -> PreparedLevel.build(level, width, height, seed, strategy, difficulty));
+    }
+
+    /**
+     * Returns the given level, using the background result when it is ready
+     * and building it on the calling thread otherwise.
+     */
+    public synchronized PreparedLevel take(int level, long seed) {
+        if (pending != null && pendingLevel == level && pendingSeed == seed) {
+            Future<PreparedLevel> job = pending;
+            pending = null;
+            pendingLevel = -1;
+            if (job.isDone()) {
+                try {
+                    PreparedLevel prepared = job.get();
+                    prefetchHits++;
+                    return prepared;
+                } catch (Exception e) {
+                    System.err.println("Background generation of level " + level + " failed: " + e.getMessage());
+                }
+            } else {
+                job.cancel(true);
+            }
+            synchronousFallbacks++;
+            System.out.println("Level " + level + " was not ready, generating synchronously (" +
+                    synchronousFallbacks + " fallbacks, " + prefetchHits + " prefetch hits)");
+        } else {
+            cancelPending();
+        }
+        return PreparedLevel.build(level, width, height, seed, strategyFactory.get(), difficulty);
+    }
+
+    public synchronized int getPrefetchHits() { return prefetchHits; }
+    public synchronized int getSynchronousFallbacks() { return synchronousFallbacks; }
+
+    public synchronized void shutdown() {
+        cancelPending();
+        executor.shutdownNow();
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+            pendingLevel = -1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package DungeonCrawler;
+
+/**
+ * Spatial index over the {@link TileType#FLOOR} tiles of a map under
+ * construction. The grid is divided into square buckets that only track how
+ * many floor tiles they hold; a nearest-floor query walks buckets in rings
+ * around the query point and stops as soon as no unvisited bucket can beat the
+ * best match, so it touches a handful of tiles instead of the whole map.
+ *
+ * All tile writes that may add or remove floor must go through
+ * {@link #set(int, int, TileType)} to keep the bucket counts in sync.
+ */
+public class NearestFloorIndex {
+    private static final int BUCKET_SHIFT = 3;
+    private static final int BUCKET_SIZE = 1 << BUCKET_SHIFT;
+
+    private final TileType[][] map;
+    private final int width;
+    private final int height;
+    private final int bucketsX;
+    private final int bucketsY;
+    private final int[] floorCounts;
+
+    public NearestFloorIndex(TileType[][] map) {
+        this.map = map;
+        this.width = map.length;
+        this.height = map[0].length;
+        this.bucketsX = (width + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        this.bucketsY = (height + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+        this.floorCounts = new int[bucketsX * bucketsY];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (map[x][y] == TileType.FLOOR) {
+                    floorCounts[bucket(x, y)]++;
+                }
+            }
+        }
+    }
+
+    public void set(int x, int y, TileType type) {
+        TileType previous = map[x][y];
+        if (previous == type) return;
+        if (previous == TileType.FLOOR) floorCounts[bucket(x, y)]--;
+        if (type == TileType.FLOOR) floorCounts[bucket(x, y)]++;
+        map[x][y] = type;
+    }
+
+    /**
+     * Returns the floor tile with the smallest Euclidean distance to the given
+     * point, or null if the map has none. Ties go to the smallest x, then the
+     * smallest y, matching a column-by-column scan of the grid.
+     */
+    public int[] findNearest(int px, int py) {
+        int cx = Math.max(0, Math.min(bucketsX - 1, px >> BUCKET_SHIFT));
+        int cy = Math.max(0, Math.min(bucketsY - 1, py >> BUCKET_SHIFT));
+        int maxRing = Math.max(Math.max(cx, bucketsX - 1 - cx), Math.max(cy, bucketsY - 1 - cy));
+
+        long bestDist = Long.MAX_VALUE;
+        int bestX = -1;
+        int bestY = -1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (ring > 0) {
+                // Every tile in this ring is at least this far away along one axis
+                long bound = (long) (ring - 1) * BUCKET_SIZE + 1;
+                if (bound * bound > bestDist) break;
+            }
+
+            for (int bx = cx - ring; bx <= cx + ring; bx++) {
+                if (bx < 0 || bx >= bucketsX) continue;
+                boolean edgeColumn = bx == cx - ring || bx == cx + ring;
+                int step = edgeColumn ? 1 : Math.max(1, 2 * ring);
+                for (int by = cy - ring; by <= cy + ring; by += step) {
+                    if (by < 0 || by >= bucketsY) continue;
+                    if (floorCounts[bx * bucketsY + by] == 0) continue;
+
+                    int minX = bx << BUCKET_SHIFT;
+                    int minY = by << BUCKET_SHIFT;
+                    int maxX = Math.min(width, minX + BUCKET_SIZE);
+                    int maxY = Math.min(height, minY + BUCKET_SIZE);
+
+                    long gapX = px < minX ? minX - px : (px >= maxX ? px - maxX + 1 : 0);
+                    long gapY = py < minY ? minY - py : (py >= maxY ? py - maxY + 1 : 0);
+                    if (gapX * gapX + gapY * gapY > bestDist) continue;
+
+                    for (int x = minX; x < maxX; x++) {
+                        TileType[] column = map[x];
+                        for (int y = minY; y < maxY; y++) {
+                            if (column[y] != TileType.FLOOR) continue;
+                            long dx = x - px;
+                            long dy = y - py;
+                            long dist = dx * dx + dy * dy;
+                            if (dist < bestDist || (dist == bestDist && (x < bestX || (x == bestX && y < bestY)))) {
+                                bestDist = dist;
+                                bestX = x;
+                                bestY = y;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return bestX < 0 ? null : new int[]{bestX, bestY};
+    }
+
+    private int bucket(int x, int y) {
+        return (x >> BUCKET_SHIFT) * bucketsY + (y >> BUCKET_SHIFT);
+    }
+}
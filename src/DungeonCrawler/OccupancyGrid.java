@@ -0,0 +1,83 @@
+package DungeonCrawler;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which entity stands on each tile so collision checks are a single
+ * array read instead of a walk over every enemy. Each registered entity gets
+ * a positive id; a cell holds that id, or 0 when the tile is free. Entities
+ * keep their cell current through {@link Entity#setPosition} and leave the
+ * grid when they die.
+ */
+public class OccupancyGrid {
+    private final int width;
+    private final int height;
+    private final int[] cells;
+    private Entity[] entities = new Entity[16];
+    private int nextId = 1;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = new int[width * height];
+    }
+
+    public int add(Entity entity) {
+        int id = nextId++;
+        if (id == entities.length) {
+            entities = Arrays.copyOf(entities, entities.length * 2);
+        }
+        entities[id] = entity;
+        if (inBounds(entity.getX(), entity.getY())) {
+            cells[entity.getX() * height + entity.getY()] = id;
+        }
+        return id;
+    }
+
+    public void move(int id, int fromX, int fromY, int toX, int toY) {
+        if (inBounds(fromX, fromY) && cells[fromX * height + fromY] == id) {
+            cells[fromX * height + fromY] = 0;
+        }
+        if (inBounds(toX, toY)) {
+            cells[toX * height + toY] = id;
+        }
+    }
+
+    public void remove(int id, int x, int y) {
+        if (inBounds(x, y) && cells[x * height + y] == id) {
+            cells[x * height + y] = 0;
+        }
+        if (id > 0 && id < entities.length) {
+            entities[id] = null;
+        }
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return inBounds(x, y) && cells[x * height + y] != 0;
+    }
+
+    public int getOccupantId(int x, int y) {
+        return inBounds(x, y) ? cells[x * height + y] : 0;
+    }
+
+    public Entity getOccupant(int x, int y) {
+        int id = getOccupantId(x, y);
+        return id == 0 ? null : entities[id];
+    }
+
+    public void clear() {
+        for (int id = 1; id < nextId; id++) {
+            Entity entity = entities[id];
+            if (entity != null) {
+                entity.releaseOccupancy();
+            }
+        }
+        Arrays.fill(cells, 0);
+        Arrays.fill(entities, null);
+        nextId = 1;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+}
@@ -0,0 +1,141 @@
+package DungeonCrawler;
+
+import java.util.Random;
+
+/**
+ * A fully built level: the generated map, the player's start tile and the
+ * initial enemy layout. Building one touches no JavaFX state, so it can run
+ * on a background thread while the previous level is still being played.
+ */
+public class PreparedLevel {
+    private final int level;
+    private final DungeonMap map;
+    private final int startX;
+    private final int startY;
+    private final EnemyPool enemies;
+
+    public PreparedLevel(int level, DungeonMap map, int startX, int startY, EnemyPool enemies) {
+        this.level = level;
+        this.map = map;
+        this.startX = startX;
+        this.startY = startY;
+        this.enemies = enemies;
+    }
+
+    public int getLevel() { return level; }
+    public DungeonMap getMap() { return map; }
+    public int getStartX() { return startX; }
+    public int getStartY() { return startY; }
+    public EnemyPool getEnemies() { return enemies; }
+
+    public static PreparedLevel build(int level, int width, int height, long seed, DungeonGenerationStrategy strategy) {
+        return build(level, width, height, seed, strategy, Difficulty.DEFAULT);
+    }
+
+    public static PreparedLevel build(int level, int width, int height, long seed,
+                                      DungeonGenerationStrategy strategy, Difficulty difficulty) {
+        DungeonMap map = new DungeonGenerator(width, height, seed, strategy).generate();
+        if (map == null) {
+            throw new IllegalStateException("Dungeon map generation failed");
+        }
+        int[] start = findStartPosition(map);
+        // Spawns draw from their own stream so building off-thread never shares the game's Random
+        EnemyPool enemies = new EnemyPool();
+        spawnEnemies(map, level, start[0], start[1], new Random(seed ^ 0x5DEECE66DL), enemies, difficulty);
+        return new PreparedLevel(level, map, start[0], start[1], enemies);
+    }
+
+    public static int[] findStartPosition(DungeonMap map) {
+        if (map.getTileCount(TileType.ROOM) == 0) {
+            throw new IllegalStateException("No valid starting position found");
+        }
+        return new int[]{map.getTileX(TileType.ROOM, 0), map.getTileY(TileType.ROOM, 0)};
+    }
+
+    public static void spawnEnemies(DungeonMap map, int level, int playerX, int playerY, Random random,
+                                    EnemyPool enemies, Difficulty difficulty) {
+        int roomCount = map.getTileCount(TileType.ROOM);
+        if (roomCount == 0) {
+            throw new IllegalStateException("No room tiles available for enemy spawning");
+        }
+
+        int totalEnemies = difficulty.getEnemyCount(level);
+        int totalBosses = difficulty.getBossCount(level);
+
+        for (int i = 0; i < totalEnemies; i++) {
+            int room = random.nextInt(roomCount);
+            int roomX = map.getTileX(TileType.ROOM, room);
+            int roomY = map.getTileY(TileType.ROOM, room);
+
+            int attempts = 0;
+            int x, y;
+            do {
+                x = roomX + random.nextInt(7) - 3;
+                y = roomY + random.nextInt(7) - 3;
+                attempts++;
+                if (attempts > 50) break;
+            } while (!isValidSpawn(map, playerX, playerY, x, y));
+
+            if (attempts <= 50) {
+                Enemy enemy = new Enemy(x, y, difficulty.getEnemyHealth(level), false);
+                enemy.enterOccupancy(map.getOccupancy());
+                enemies.add(enemy);
+            }
+        }
+
+        // Rooms already used for a boss are skipped so each boss gets its own
+        boolean[] usedRooms = new boolean[roomCount];
+        int usedCount = 0;
+        for (int i = 0; i < totalBosses; i++) {
+            if (usedCount == roomCount) break;
+            int room = getFarthestRoom(map, usedRooms, playerX, playerY);
+            int roomX = map.getTileX(TileType.ROOM, room);
+            int roomY = map.getTileY(TileType.ROOM, room);
+
+            int attempts = 0;
+            int x, y;
+            do {
+                x = roomX + random.nextInt(5) - 2;
+                y = roomY + random.nextInt(5) - 2;
+                attempts++;
+                if (attempts > 50) break;
+            } while (!isValidSpawn(map, playerX, playerY, x, y));
+
+            if (attempts <= 50) {
+                Enemy boss = new Enemy(x, y, difficulty.getBossHealth(level), true);
+                boss.enterOccupancy(map.getOccupancy());
+                enemies.add(boss);
+                usedRooms[room] = true;
+                usedCount++;
+            }
+        }
+    }
+
+    private static int getFarthestRoom(DungeonMap map, boolean[] usedRooms, int playerX, int playerY) {
+        int farthest = -1;
+        int first = -1;
+        long maxDistance = 0;
+
+        for (int room = 0; room < usedRooms.length; room++) {
+            if (usedRooms[room]) continue;
+            if (first < 0) first = room;
+            long dx = map.getTileX(TileType.ROOM, room) - playerX;
+            long dy = map.getTileY(TileType.ROOM, room) - playerY;
+            long dist = dx * dx + dy * dy;
+            if (dist > maxDistance) {
+                maxDistance = dist;
+                farthest = room;
+            }
+        }
+
+        return farthest >= 0 ? farthest : first;
+    }
+
+    private static boolean isValidSpawn(DungeonMap map, int playerX, int playerY, int x, int y) {
+        if (x < 0 || x >= map.getWidth() || y < 0 || y >= map.getHeight()) return false;
+        if (map.getTileType(x, y) != TileType.ROOM) return false;
+        if (x == playerX && y == playerY) return false;
+        if (Math.abs(x - playerX) <= 5 && Math.abs(y - playerY) <= 5) return false;
+        return !map.getOccupancy().isOccupied(x, y);
+    }
+}
@@ -0,0 +1,50 @@
+package DungeonCrawler;
+
+/**
+ * One shot traced by {@link ProjectileSystem}, kept in world coordinates
+ * (tile units, tile centres at {@code n + 0.5}) so a view can draw it
+ * wherever the camera happens to be. The path lists every tile the shot
+ * entered, in order, ending at the tile it hit if it hit anything.
+ */
+public class Projectile {
+    private final double originX;
+    private final double originY;
+    private final double dirX;
+    private final double dirY;
+    private final int range;
+    private final int[] pathX;
+    private final int[] pathY;
+    private int pathLength;
+    private Entity target;
+
+    Projectile(double originX, double originY, double dirX, double dirY, int range) {
+        this.originX = originX;
+        this.originY = originY;
+        this.dirX = dirX;
+        this.dirY = dirY;
+        this.range = range;
+        this.pathX = new int[range];
+        this.pathY = new int[range];
+    }
+
+    void addTile(int x, int y) {
+        pathX[pathLength] = x;
+        pathY[pathLength] = y;
+        pathLength++;
+    }
+
+    void setTarget(Entity target) { this.target = target; }
+
+    public double getOriginX() { return originX; }
+    public double getOriginY() { return originY; }
+    public double getDirX() { return dirX; }
+    public double getDirY() { return dirY; }
+    public int getRange() { return range; }
+    public int getPathLength() { return pathLength; }
+    public int getPathX(int index) { return pathX[index]; }
+    public int getPathY(int index) { return pathY[index]; }
+
+    /** The entity on the last tile of the path, or null if the shot hit nothing. */
+    public Entity getTarget() { return target; }
+    public boolean hasHit() { return target != null; }
+}
@@ -0,0 +1,77 @@
+package DungeonCrawler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traces shots across the tile grid. Each shot walks the grid with a DDA
+ * (visiting exactly the tiles its ray crosses, so any direction works, not
+ * just the four cardinal ones), stops at walls and the map edge, and tests
+ * for a hit with one {@link OccupancyGrid} lookup per tile.
+ *
+ * Shots launched in the same turn resolve in launch order, so a shot that
+ * kills an enemy frees its tile for the shots after it. The projectiles of
+ * the current turn are kept until {@link #clear()} for anyone who wants to
+ * draw them.
+ */
+public class ProjectileSystem {
+    private final List<Projectile> launched = new ArrayList<>();
+
+    /**
+     * Fires from a point in world coordinates; {@code range} is the number of
+     * tiles the shot may enter before it fizzles.
+     */
+    public Projectile launch(DungeonMap map, double originX, double originY,
+                             double dirX, double dirY, int range) {
+        if (dirX == 0 && dirY == 0) {
+            throw new IllegalArgumentException("Projectile needs a direction");
+        }
+        Projectile projectile = new Projectile(originX, originY, dirX, dirY, range);
+        trace(map, projectile);
+        launched.add(projectile);
+        return projectile;
+    }
+
+    public List<Projectile> getLaunched() { return launched; }
+
+    public void clear() {
+        launched.clear();
+    }
+
+    private void trace(DungeonMap map, Projectile projectile) {
+        double ox = projectile.getOriginX();
+        double oy = projectile.getOriginY();
+        double dx = projectile.getDirX();
+        double dy = projectile.getDirY();
+        int x = (int) Math.floor(ox);
+        int y = (int) Math.floor(oy);
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        // Ray parameter at which the next vertical / horizontal grid line is crossed
+        double tDeltaX = dx == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dx);
+        double tDeltaY = dy == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dy);
+        double tMaxX = dx > 0 ? (x + 1 - ox) / dx : dx < 0 ? (ox - x) / -dx : Double.POSITIVE_INFINITY;
+        double tMaxY = dy > 0 ? (y + 1 - oy) / dy : dy < 0 ? (oy - y) / -dy : Double.POSITIVE_INFINITY;
+
+        OccupancyGrid occupancy = map.getOccupancy();
+        for (int n = 0; n < projectile.getRange(); n++) {
+            if (tMaxX < tMaxY) {
+                x += stepX;
+                tMaxX += tDeltaX;
+            } else {
+                y += stepY;
+                tMaxY += tDeltaY;
+            }
+            if (x < 0 || y < 0 || x >= map.getWidth() || y >= map.getHeight()
+                    || map.getTileType(x, y) == TileType.WALL) {
+                return;
+            }
+            projectile.addTile(x, y);
+            Entity occupant = occupancy.getOccupant(x, y);
+            if (occupant != null) {
+                projectile.setTarget(occupant);
+                return;
+            }
+        }
+    }
+}
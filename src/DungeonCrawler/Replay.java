@@ -0,0 +1,156 @@
+package DungeonCrawler;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Plays back a recording made by {@link ReplayRecorder} on a headless
+ * {@link GameEngine}, as fast as the rules allow, checking the state hash at
+ * every recorded checkpoint. A recording cut short by a crash replays up to
+ * its last complete record; recordings streamed to a file reach disk at
+ * every checkpoint.
+ *
+ * Usage: {@code java DungeonCrawler.Replay replay.bin}
+ */
+public class Replay {
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final String strategyName;
+    private final long startTime;
+    private final ByteBuffer records;
+
+    private Replay(ByteBuffer data) {
+        if (data.getInt() != ReplayRecorder.MAGIC) {
+            throw new IllegalArgumentException("Not a replay file");
+        }
+        int version = data.get();
+        if (version != 1 && version != ReplayRecorder.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version " + version);
+        }
+        this.seed = data.getLong();
+        if (version == 1) {
+            // Version 1 stored the map size in two bytes each
+            this.width = data.getShort() & 0xFFFF;
+            this.height = data.getShort() & 0xFFFF;
+        } else {
+            this.width = data.getInt();
+            this.height = data.getInt();
+        }
+        byte[] name = new byte[data.getShort() & 0xFFFF];
+        data.get(name);
+        this.strategyName = new String(name, StandardCharsets.UTF_8);
+        this.startTime = data.getLong();
+        this.records = data.slice();
+    }
+
+    public static Replay fromBytes(byte[] data) {
+        return new Replay(ByteBuffer.wrap(data));
+    }
+
+    public static Replay read(Path path) throws IOException {
+        return fromBytes(Files.readAllBytes(path));
+    }
+
+    public long getSeed() { return seed; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public String getStrategyName() { return strategyName; }
+
+    public ReplayResult run() {
+        GameState state = new GameState(width, height, seed);
+        GameEngine engine = new GameEngine(state, () -> DungeonGenerationStrategy.forName(strategyName),
+                false, GameListener.NONE);
+        long[] now = {startTime};
+        engine.setClock(() -> now[0]);
+
+        ByteBuffer in = records.duplicate();
+        Command[] commands = Command.values();
+        long turn = 0;
+        long time = startTime;
+        int verified = 0;
+        long divergedAt = -1;
+
+        long start = System.nanoTime();
+        engine.startNewGame();
+        try {
+            while (in.hasRemaining()) {
+                int tag = in.get() & 0xFF;
+                if (tag == ReplayRecorder.TAG_END) {
+                    break;
+                }
+                turn += readVarLong(in);
+                if (tag == ReplayRecorder.TAG_CHECKPOINT) {
+                    long expected = in.getLong();
+                    if (engine.getTurn() != turn || state.stateHash() != expected) {
+                        divergedAt = turn;
+                        break;
+                    }
+                    verified++;
+                } else {
+                    if (tag >= commands.length) {
+                        throw new IllegalArgumentException("Unknown command " + tag + " at turn " + turn);
+                    }
+                    time += unZigZag(readVarLong(in));
+                    if (engine.getTurn() != turn) {
+                        divergedAt = turn;
+                        break;
+                    }
+                    now[0] = time;
+                    engine.step(commands[tag]);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            System.err.println("Replay truncated after turn " + engine.getTurn());
+        } finally {
+            engine.shutdown();
+        }
+        return new ReplayResult(engine.getTurn(), verified, divergedAt, System.nanoTime() - start);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void main(String[] args) {
+        try {
+            if (args.length != 1) {
+                System.err.println("Usage: java DungeonCrawler.Replay <replay file>");
+                System.exit(2);
+            }
+            Replay replay = read(Paths.get(args[0]));
+            ReplayResult result = replay.run();
+            System.out.printf("Replayed %d turns (seed %d, %dx%d, %s) in %.1f ms, %.0f turns/s%n",
+                    result.getTurns(), replay.getSeed(), replay.getWidth(), replay.getHeight(),
+                    replay.getStrategyName(), result.getElapsedNanos() / 1_000_000.0, result.getTurnsPerSecond());
+            if (result.isConsistent()) {
+                System.out.println("All " + result.getCheckpointsVerified() + " checkpoints matched");
+            } else {
+                System.out.println("Diverged at turn " + result.getDivergedAtTurn() + " after " +
+                        result.getCheckpointsVerified() + " matching checkpoints");
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("Error replaying game: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
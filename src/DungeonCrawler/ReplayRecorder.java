@@ -0,0 +1,154 @@
+package DungeonCrawler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a game as its seed plus the stream of commands fed to
+ * {@link GameEngine}, so it can be reproduced with {@link Replay}.
+ *
+ * Layout: a header (magic, version, seed, map size, generation strategy,
+ * start time) followed by records. A command record is the command ordinal,
+ * the turn delta and the clock delta as varints, usually three bytes in all.
+ * Every {@link #CHECKPOINT_INTERVAL} turns a checkpoint record carries
+ * {@link GameState#stateHash()} so a replay can tell where it diverged.
+ *
+ * A recorder made with {@link #open} streams to a file: records collect in a
+ * small buffer that is written out and flushed at every checkpoint, so a
+ * crash loses at most the turns since the last one and memory use does not
+ * grow with the length of the session. Otherwise the recording stays in
+ * memory until {@link #writeTo} or {@link #toByteArray}.
+ */
+public class ReplayRecorder {
+    static final int MAGIC = 0x44435250; // "DCRP"
+    static final int VERSION = 2;
+    static final int TAG_CHECKPOINT = 0x7E;
+    static final int TAG_END = 0x7F;
+    public static final int CHECKPOINT_INTERVAL = 32;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final OutputStream sink;
+    private long lastTurn;
+    private long lastTime;
+    private boolean finished;
+
+    public ReplayRecorder(GameState state, String strategyName, long startTime) {
+        this(state, strategyName, startTime, null);
+    }
+
+    private ReplayRecorder(GameState state, String strategyName, long startTime, OutputStream sink) {
+        this.sink = sink;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(state.getSeed());
+            out.writeInt(state.getMapWidth());
+            out.writeInt(state.getMapHeight());
+            out.writeUTF(strategyName);
+            out.writeLong(startTime);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write replay header", e);
+        }
+        this.lastTime = startTime;
+        drain();
+    }
+
+    /** Starts a recording that is written to {@code path} as it goes. */
+    public static ReplayRecorder open(GameState state, String strategyName, long startTime, Path path)
+            throws IOException {
+        return new ReplayRecorder(state, strategyName, startTime, Files.newOutputStream(path));
+    }
+
+    void record(long turn, long time, Command command) {
+        if (finished) return;
+        buffer.write(command.ordinal());
+        writeVarLong(turn - lastTurn);
+        writeVarLong(zigZag(time - lastTime));
+        lastTurn = turn;
+        lastTime = time;
+    }
+
+    void afterStep(long turn, GameState state) {
+        if (!finished && turn % CHECKPOINT_INTERVAL == 0) {
+            writeCheckpoint(turn, state);
+            drain();
+        }
+    }
+
+    /** Ends the recording with a final checkpoint of the given state. */
+    public void finish(long turn, GameState state) {
+        if (finished) return;
+        writeCheckpoint(turn, state);
+        buffer.write(TAG_END);
+        finished = true;
+        drain();
+        if (sink != null) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                System.err.println("Error closing replay: " + e.getMessage());
+            }
+        }
+    }
+
+    /** The whole recording; only for recorders kept in memory. */
+    public byte[] toByteArray() {
+        requireInMemory();
+        return buffer.toByteArray();
+    }
+
+    /** Writes the whole recording to {@code path}; only for recorders kept in memory. */
+    public void writeTo(Path path) throws IOException {
+        requireInMemory();
+        try (OutputStream file = Files.newOutputStream(path)) {
+            buffer.writeTo(file);
+        }
+    }
+
+    private void requireInMemory() {
+        if (sink != null) {
+            throw new IllegalStateException("Recording is streamed to a file");
+        }
+    }
+
+    /** Hands what has been recorded since the last drain to the file, if there is one. */
+    private void drain() {
+        if (sink == null) return;
+        try {
+            buffer.writeTo(sink);
+            sink.flush();
+        } catch (IOException e) {
+            System.err.println("Error writing replay: " + e.getMessage());
+        }
+        buffer.reset();
+    }
+
+    private void writeCheckpoint(long turn, GameState state) {
+        buffer.write(TAG_CHECKPOINT);
+        writeVarLong(turn - lastTurn);
+        lastTurn = turn;
+        try {
+            out.writeLong(state.stateHash());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write replay checkpoint", e);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        // Wall clocks can step backwards, so time deltas are signed
+        return (value << 1) ^ (value >> 63);
+    }
+}
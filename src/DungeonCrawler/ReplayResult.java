@@ -0,0 +1,29 @@
+package DungeonCrawler;
+
+/**
+ * Outcome of {@link Replay#run()}: how far the replay got, whether every
+ * checkpoint matched, and how fast the turns went through.
+ */
+public class ReplayResult {
+    private final long turns;
+    private final int checkpointsVerified;
+    private final long divergedAtTurn;
+    private final long elapsedNanos;
+
+    public ReplayResult(long turns, int checkpointsVerified, long divergedAtTurn, long elapsedNanos) {
+        this.turns = turns;
+        this.checkpointsVerified = checkpointsVerified;
+        this.divergedAtTurn = divergedAtTurn;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getTurns() { return turns; }
+    public int getCheckpointsVerified() { return checkpointsVerified; }
+    public boolean isConsistent() { return divergedAtTurn < 0; }
+    /** Turn of the first checkpoint whose hash did not match, or -1. */
+    public long getDivergedAtTurn() { return divergedAtTurn; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public double getTurnsPerSecond() {
+        return elapsedNanos == 0 ? 0 : turns * 1_000_000_000.0 / elapsedNanos;
+    }
+}
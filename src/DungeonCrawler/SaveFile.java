@@ -0,0 +1,357 @@
+package DungeonCrawler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The binary save game format.
+ *
+ * Layout: a 16-byte header (magic, version, section count, payload length,
+ * CRC-32 of the payload) followed by sections, each a one-byte tag and a
+ * four-byte length. Readers skip sections they do not know, so later
+ * versions can add some without breaking older saves. The map section is
+ * written by {@link DungeonMap#writeBinary}; everything else is small.
+ * Drop spawn times are not stored, since a load restarts their lifetime.
+ *
+ * Usage: {@code SaveFile.write(state, path)} and
+ * {@code SaveFile.read(state, path, loadTime)}.
+ */
+public class SaveFile {
+    static final int MAGIC = 0x44435356; // "DCSV"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SECTION_HEADER_SIZE = 5;
+    static final int TAG_PLAYER = 1;
+    static final int TAG_ENEMIES = 2;
+    static final int TAG_DROPS = 3;
+    static final int TAG_MAP = 4;
+    static final int TAG_FLOORS = 5;
+    static final int MAX_PLAYER_SIZE = 64;
+
+    private SaveFile() {
+    }
+
+    /** Encodes the state into a buffer ready to be written (position 0, limit at the end). */
+    public static ByteBuffer encode(GameState state) {
+        int enemyCount = state.enemies != null ? state.enemies.size() : 0;
+        int capacity = HEADER_SIZE + 4 * SECTION_HEADER_SIZE
+                + MAX_PLAYER_SIZE
+                + 5 + enemyCount * 21
+                + maxDropsSize(state)
+                + state.dungeonMap.maxBinarySize()
+                + 10 + state.levelArchive.maxBinarySize();
+        ByteBuffer out = ByteBuffer.allocate(capacity);
+        out.position(HEADER_SIZE);
+
+        int start = beginSection(out, TAG_PLAYER);
+        writePlayer(out, state);
+        endSection(out, start);
+
+        start = beginSection(out, TAG_ENEMIES);
+        putVarLong(out, enemyCount);
+        for (int i = 0; i < enemyCount; i++) {
+            putVarLong(out, state.enemies.getX(i));
+            putVarLong(out, state.enemies.getY(i));
+            out.put((byte) (state.enemies.isBoss(i) ? 1 : 0));
+            putVarLong(out, zigZag(state.enemies.getHealth(i)));
+        }
+        endSection(out, start);
+
+        start = beginSection(out, TAG_DROPS);
+        writeDrops(out, state);
+        endSection(out, start);
+
+        start = beginSection(out, TAG_MAP);
+        state.dungeonMap.writeBinary(out);
+        endSection(out, start);
+
+        start = beginSection(out, TAG_FLOORS);
+        putVarLong(out, zigZag(state.entryX));
+        putVarLong(out, zigZag(state.entryY));
+        state.levelArchive.writeBinary(out);
+        endSection(out, start);
+
+        int payloadLength = out.position() - HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), HEADER_SIZE, payloadLength);
+        out.putInt(0, MAGIC);
+        out.putShort(4, (short) VERSION);
+        out.putShort(6, (short) 5);
+        out.putInt(8, payloadLength);
+        out.putInt(12, (int) crc.getValue());
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Replaces the state with a saved game. The header and checksum are
+     * checked before anything is changed, so a damaged file leaves the
+     * current game as it was. Drops restart their lifetime at
+     * {@code loadTime}.
+     */
+    public static void decode(ByteBuffer data, GameState state, long loadTime) {
+        ByteBuffer in = data.slice();
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a save file");
+        }
+        int version = in.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported save version " + version);
+        }
+        int sectionCount = in.getShort();
+        int payloadLength = in.getInt();
+        int expectedCrc = in.getInt();
+        if (payloadLength < 0 || payloadLength > in.remaining()) {
+            throw new IllegalArgumentException("Save file is truncated");
+        }
+        ByteBuffer payload = in.slice();
+        payload.limit(payloadLength);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IllegalArgumentException("Save file is corrupt (checksum mismatch)");
+        }
+
+        ByteBuffer player = null, enemies = null, drops = null, map = null, floors = null;
+        for (int i = 0; i < sectionCount; i++) {
+            int tag = payload.get() & 0xFF;
+            int length = payload.getInt();
+            if (length < 0 || length > payload.remaining()) {
+                throw new IllegalArgumentException("Bad length for section " + tag);
+            }
+            ByteBuffer section = payload.slice();
+            section.limit(length);
+            payload.position(payload.position() + length);
+            switch (tag) {
+                case TAG_PLAYER: player = section; break;
+                case TAG_ENEMIES: enemies = section; break;
+                case TAG_DROPS: drops = section; break;
+                case TAG_MAP: map = section; break;
+                case TAG_FLOORS: floors = section; break;
+                default: break; // written by a newer version; not needed here
+            }
+        }
+        if (player == null || enemies == null || drops == null || map == null) {
+            throw new IllegalArgumentException("Save file is missing a section");
+        }
+
+        DungeonMap dungeonMap = new DungeonMap(state.mapWidth, state.mapHeight);
+        dungeonMap.readBinary(map);
+        // Saves from before floors were kept have no section; nothing to go back to
+        LevelArchive archive = new LevelArchive();
+        int entryX = -1, entryY = -1;
+        if (floors != null) {
+            entryX = (int) unZigZag(getVarLong(floors));
+            entryY = (int) unZigZag(getVarLong(floors));
+            archive.readBinary(floors);
+        }
+
+        readPlayer(player, state);
+
+        if (state.enemies == null) {
+            state.enemies = new EnemyPool();
+        }
+        state.enemies.clear();
+        long enemyCount = getVarLong(enemies);
+        for (long i = 0; i < enemyCount; i++) {
+            int x = (int) getVarLong(enemies);
+            int y = (int) getVarLong(enemies);
+            boolean isBoss = enemies.get() != 0;
+            int health = (int) unZigZag(getVarLong(enemies));
+            state.enemies.add(new Enemy(x, y, health, isBoss));
+        }
+
+        readDrops(drops, state, loadTime);
+
+        state.dungeonMap = dungeonMap;
+        state.levelArchive = archive;
+        state.entryX = entryX;
+        state.entryY = entryY;
+        for (int i = 0; i < state.enemies.size(); i++) {
+            state.enemies.get(i).enterOccupancy(dungeonMap.getOccupancy());
+        }
+        state.storyTeller = new StoryTeller(dungeonMap);
+        state.storyTeller.onTileEntered(state.playerX, state.playerY, loadTime);
+        state.gameOver = false;
+    }
+
+    /** Player position, stats and flags; at most {@link #MAX_PLAYER_SIZE} bytes. */
+    static void writePlayer(ByteBuffer out, GameState state) {
+        putVarLong(out, state.currentLevel);
+        putVarLong(out, state.playerX);
+        putVarLong(out, state.playerY);
+        putVarLong(out, zigZag(state.playerHealth));
+        putVarLong(out, state.playerGold);
+        putVarLong(out, state.playerHealthPotions);
+        putVarLong(out, state.enemiesKilled);
+        putVarLong(out, state.regularEnemyKills);
+        out.put((byte) ((state.bossKilled ? 1 : 0) | (state.hasKey ? 2 : 0) | (state.keyCollected ? 4 : 0)));
+        out.putChar(state.lastDirection);
+    }
+
+    static void readPlayer(ByteBuffer in, GameState state) {
+        state.currentLevel = (int) getVarLong(in);
+        state.playerX = (int) getVarLong(in);
+        state.playerY = (int) getVarLong(in);
+        state.playerHealth = (int) unZigZag(getVarLong(in));
+        state.playerGold = (int) getVarLong(in);
+        state.playerHealthPotions = (int) getVarLong(in);
+        state.enemiesKilled = (int) getVarLong(in);
+        state.regularEnemyKills = (int) getVarLong(in);
+        int flags = in.get();
+        state.bossKilled = (flags & 1) != 0;
+        state.hasKey = (flags & 2) != 0;
+        state.keyCollected = (flags & 4) != 0;
+        state.lastDirection = in.getChar();
+    }
+
+    static int maxDropsSize(GameState state) {
+        return 10 + state.goldDrops.size() * 15 + state.healthPotions.size() * 10;
+    }
+
+    static void writeDrops(ByteBuffer out, GameState state) {
+        putVarLong(out, state.goldDrops.size());
+        for (int i = 0; i < state.goldDrops.size(); i++) {
+            GoldDrop gold = state.goldDrops.get(i);
+            putVarLong(out, gold.getX());
+            putVarLong(out, gold.getY());
+            putVarLong(out, zigZag(gold.getAmount()));
+        }
+        putVarLong(out, state.healthPotions.size());
+        for (int i = 0; i < state.healthPotions.size(); i++) {
+            HealthPotion potion = state.healthPotions.get(i);
+            putVarLong(out, potion.getX());
+            putVarLong(out, potion.getY());
+        }
+    }
+
+    /** Replaces the drops; they restart their lifetime at {@code loadTime}. */
+    static void readDrops(ByteBuffer in, GameState state, long loadTime) {
+        state.goldDrops.clear();
+        long goldCount = getVarLong(in);
+        for (long i = 0; i < goldCount; i++) {
+            int x = (int) getVarLong(in);
+            int y = (int) getVarLong(in);
+            int amount = (int) unZigZag(getVarLong(in));
+            state.goldDrops.spawn(x, y, loadTime).setAmount(amount);
+        }
+        state.healthPotions.clear();
+        long potionCount = getVarLong(in);
+        for (long i = 0; i < potionCount; i++) {
+            int x = (int) getVarLong(in);
+            int y = (int) getVarLong(in);
+            state.healthPotions.spawn(x, y, loadTime);
+        }
+    }
+
+    public static void write(GameState state, Path path) throws IOException {
+        writeAtomically(path, encode(state));
+    }
+
+    /**
+     * Writes to a temporary file next to {@code path}, forces it to disk and
+     * renames it over {@code path}, so a crash mid-save leaves either the old
+     * file or the new one, never a mix.
+     */
+    static void writeAtomically(Path path, ByteBuffer data) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        replace(temp, path);
+    }
+
+    /** Renames {@code from} over {@code to}, atomically where the file system allows it. */
+    static void replace(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static void read(GameState state, Path path, long loadTime) throws IOException {
+        decode(readFully(path), state, loadTime);
+    }
+
+    static ByteBuffer readFully(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Save file too large: " + size + " bytes");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading until full or end of file
+            }
+            data.flip();
+            return data;
+        }
+    }
+
+    private static int beginSection(ByteBuffer out, int tag) {
+        out.put((byte) tag);
+        out.putInt(0);
+        return out.position();
+    }
+
+    private static void endSection(ByteBuffer out, int start) {
+        out.putInt(start - 4, out.position() - start);
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint");
+            }
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
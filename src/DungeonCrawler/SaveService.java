@@ -0,0 +1,68 @@
+package DungeonCrawler;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves games without blocking the caller. {@link #save} takes a
+ * {@link GameState#snapshot()} on the calling thread, which costs a few
+ * object copies, and queues the encoding and the atomic write on a single
+ * background thread, so saves land in the order they were asked for.
+ */
+public class SaveService {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Snapshots {@code state} now and writes it to {@code path} in the background. */
+    public CompletableFuture<Path> save(GameState state, Path path) {
+        GameState snapshot = state.snapshot();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                SaveFile.write(snapshot, path);
+                return path;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /** Snapshots {@code state} now and writes it to a slot of {@code store} in the background. */
+    public CompletableFuture<SaveSlot> save(GameState state, SaveStore store, int slotId) {
+        GameState snapshot = state.snapshot();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.write(slotId, snapshot);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /** Blocks until every save queued so far has finished. */
+    public void awaitPending() {
+        try {
+            CompletableFuture.runAsync(() -> { }, executor).get();
+        } catch (Exception e) {
+            System.err.println("Error waiting for pending saves: " + e.getMessage());
+        }
+    }
+
+    /** Finishes queued saves, waiting up to a few seconds, then stops the writer thread. */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Pending saves did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package DungeonCrawler;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * What the {@link SaveStore} index knows about one saved game: enough to
+ * list and preview it without reading the save itself.
+ */
+public class SaveSlot {
+    private final int id;
+    private final int level;
+    private final int health;
+    private final int gold;
+    private final long timestamp;
+    private final int length;
+
+    SaveSlot(int id, int level, int health, int gold, long timestamp, int length) {
+        this.id = id;
+        this.level = level;
+        this.health = health;
+        this.gold = gold;
+        this.timestamp = timestamp;
+        this.length = length;
+    }
+
+    public int getId() { return id; }
+    public int getLevel() { return level; }
+    public int getHealth() { return health; }
+    public int getGold() { return gold; }
+    /** When the slot was written, in milliseconds since the epoch. */
+    public long getTimestamp() { return timestamp; }
+    /** Size of the saved game in bytes. */
+    public int getLength() { return length; }
+
+    @Override
+    public String toString() {
+        return "Slot " + id + ": level " + level + ", " + health + " HP, " + gold + " gold ("
+                + new SimpleDateFormat("yyyy-MM-dd HH:mm").format(new Date(timestamp)) + ")";
+    }
+}
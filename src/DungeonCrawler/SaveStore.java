@@ -0,0 +1,311 @@
+package DungeonCrawler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Many saved games in one file. The front of the file is a fixed-size
+ * index, memory-mapped, with one entry per slot: id, level, health, gold,
+ * timestamp, offset and length of the save, and a CRC of the entry. The
+ * saves themselves ({@link SaveFile} format, each with its own CRC) follow.
+ * Listing slots only reads the index, so it stays fast with hundreds of
+ * saves.
+ *
+ * Writes never touch data a live entry points to: the save goes into free
+ * space and is forced to disk, then its entry goes into a free index
+ * position and is forced, and only then is the slot's old entry cleared. A
+ * crash at any point leaves each slot either old or new, and a damaged
+ * entry or save only loses that one slot. Space freed by overwritten or
+ * deleted slots is reused first-fit.
+ */
+public class SaveStore {
+    static final int MAGIC = 0x44435353; // "DCSS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 40;
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Entry layout
+    private static final int ID = 0;
+    private static final int LEVEL = 4;
+    private static final int HEALTH = 8;
+    private static final int GOLD = 12;
+    private static final int TIMESTAMP = 16;
+    private static final int OFFSET = 24;
+    private static final int LENGTH = 32;
+    private static final int CRC = 36;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final int capacity;
+    private final long dataStart;
+
+    public SaveStore(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /** Opens the store at {@code path}, creating it with room for {@code capacity} slots if it is new. */
+    public SaveStore(Path path, int capacity) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                if (capacity <= 0) {
+                    throw new IllegalArgumentException("Capacity must be positive");
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(capacity).flip();
+                writeFully(header, 0);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                readFully(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IOException("Not a save store: " + path);
+                }
+                int version = header.getInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported save store version " + version);
+                }
+                capacity = header.getInt();
+                if (capacity <= 0) {
+                    throw new IOException("Save store header is corrupt: " + path);
+                }
+            }
+            this.capacity = capacity;
+            this.dataStart = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+            // Mapping past the end grows the file; new index positions read as empty
+            this.index = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataStart);
+            dropDuplicates();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() { return path; }
+    public int getCapacity() { return capacity; }
+
+    /** Every readable slot, newest first. Damaged index entries are left out. */
+    public synchronized List<SaveSlot> list() {
+        List<SaveSlot> slots = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            if (isLive(i)) {
+                slots.add(slotAt(i));
+            }
+        }
+        slots.sort(Comparator.comparingLong(SaveSlot::getTimestamp).reversed());
+        return slots;
+    }
+
+    /** The slot with the given id, or null if there is none. */
+    public synchronized SaveSlot find(int slotId) {
+        int position = positionOf(slotId);
+        return position >= 0 ? slotAt(position) : null;
+    }
+
+    /** The smallest id not in use, for saving to a new slot. */
+    public synchronized int nextFreeId() {
+        boolean[] used = new boolean[capacity + 2];
+        for (int i = 0; i < capacity; i++) {
+            if (isLive(i)) {
+                int id = entryInt(i, ID);
+                if (id < used.length) used[id] = true;
+            }
+        }
+        int id = 1;
+        while (used[id]) id++;
+        return id;
+    }
+
+    /** Saves {@code state} into the slot, replacing what it held. */
+    public synchronized SaveSlot write(int slotId, GameState state) throws IOException {
+        if (slotId <= 0) {
+            throw new IllegalArgumentException("Slot id must be positive");
+        }
+        ByteBuffer data = SaveFile.encode(state);
+        int length = data.remaining();
+        int oldPosition = positionOf(slotId);
+        int newPosition = freePosition();
+        if (newPosition < 0) {
+            throw new IOException("Save store is full (" + capacity + " slots)");
+        }
+
+        long offset = allocate(length);
+        writeFully(data, offset);
+        channel.force(false);
+
+        int entry = HEADER_SIZE + newPosition * ENTRY_SIZE;
+        index.putInt(entry + ID, slotId);
+        index.putInt(entry + LEVEL, state.currentLevel);
+        index.putInt(entry + HEALTH, state.playerHealth);
+        index.putInt(entry + GOLD, state.playerGold);
+        index.putLong(entry + TIMESTAMP, System.currentTimeMillis());
+        index.putLong(entry + OFFSET, offset);
+        index.putInt(entry + LENGTH, length);
+        index.putInt(entry + CRC, entryCrc(newPosition));
+        index.force();
+
+        if (oldPosition >= 0) {
+            clear(oldPosition);
+            index.force();
+        }
+        return slotAt(newPosition);
+    }
+
+    /**
+     * Loads the slot into {@code state}. A missing or damaged slot throws
+     * and leaves {@code state} as it was.
+     */
+    public synchronized void read(int slotId, GameState state, long loadTime) throws IOException {
+        int position = positionOf(slotId);
+        if (position < 0) {
+            throw new IOException("No save in slot " + slotId);
+        }
+        long offset = entryLong(position, OFFSET);
+        int length = entryInt(position, LENGTH);
+        if (offset + length > channel.size()) {
+            throw new IOException("Save in slot " + slotId + " is truncated");
+        }
+        ByteBuffer data = ByteBuffer.allocate(length);
+        readFully(data, offset);
+        data.flip();
+        SaveFile.decode(data, state, loadTime);
+    }
+
+    public synchronized boolean delete(int slotId) {
+        int position = positionOf(slotId);
+        if (position < 0) return false;
+        clear(position);
+        index.force();
+        return true;
+    }
+
+    public synchronized void close() throws IOException {
+        index.force();
+        channel.close();
+    }
+
+    // Index
+
+    private boolean isLive(int position) {
+        return entryInt(position, ID) > 0 && entryInt(position, CRC) == entryCrc(position);
+    }
+
+    private int positionOf(int slotId) {
+        for (int i = 0; i < capacity; i++) {
+            if (entryInt(i, ID) == slotId && isLive(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int freePosition() {
+        for (int i = 0; i < capacity; i++) {
+            if (!isLive(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private SaveSlot slotAt(int position) {
+        return new SaveSlot(entryInt(position, ID), entryInt(position, LEVEL), entryInt(position, HEALTH),
+                entryInt(position, GOLD), entryLong(position, TIMESTAMP), entryInt(position, LENGTH));
+    }
+
+    private int entryInt(int position, int field) {
+        return index.getInt(HEADER_SIZE + position * ENTRY_SIZE + field);
+    }
+
+    private long entryLong(int position, int field) {
+        return index.getLong(HEADER_SIZE + position * ENTRY_SIZE + field);
+    }
+
+    private int entryCrc(int position) {
+        ByteBuffer entry = index.duplicate();
+        entry.position(HEADER_SIZE + position * ENTRY_SIZE);
+        entry.limit(entry.position() + CRC);
+        CRC32 crc = new CRC32();
+        crc.update(entry);
+        return (int) crc.getValue();
+    }
+
+    private void clear(int position) {
+        int entry = HEADER_SIZE + position * ENTRY_SIZE;
+        for (int i = 0; i < ENTRY_SIZE; i += 4) {
+            index.putInt(entry + i, 0);
+        }
+    }
+
+    /** A crash between writing a slot's new entry and clearing its old one leaves both; keep the newer. */
+    private void dropDuplicates() {
+        Map<Integer, Integer> positions = new HashMap<>();
+        boolean changed = false;
+        for (int i = 0; i < capacity; i++) {
+            if (!isLive(i)) continue;
+            Integer other = positions.putIfAbsent(entryInt(i, ID), i);
+            if (other != null) {
+                boolean keepNew = entryLong(i, TIMESTAMP) >= entryLong(other, TIMESTAMP);
+                clear(keepNew ? other : i);
+                if (keepNew) positions.put(entryInt(i, ID), i);
+                changed = true;
+            }
+        }
+        if (changed) {
+            index.force();
+        }
+    }
+
+    // Data
+
+    /** First gap between live saves that fits {@code length} bytes, or the end of the data. */
+    private long allocate(int length) {
+        long[][] used = new long[capacity][];
+        int count = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (isLive(i)) {
+                long offset = entryLong(i, OFFSET);
+                used[count++] = new long[] { offset, offset + entryInt(i, LENGTH) };
+            }
+        }
+        Arrays.sort(used, 0, count, Comparator.comparingLong(range -> range[0]));
+        long cursor = dataStart;
+        for (int i = 0; i < count; i++) {
+            if (used[i][0] - cursor >= length) {
+                return cursor;
+            }
+            cursor = Math.max(cursor, used[i][1]);
+        }
+        return cursor;
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private void readFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            int read = channel.read(data, position);
+            if (read < 0) break;
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package DungeonCrawler;
+
+/**
+ * The values the sidebar shows, as last drawn. {@link #update} copies the
+ * current values out of a {@link GameState} and reports which groups of
+ * them changed, so the sidebar can skip redrawing when nothing did.
+ */
+public class SidebarModel {
+    public static final int STATS = 1;
+    public static final int COMBAT = 1 << 1;
+    public static final int STORY = 1 << 2;
+    public static final int ACTIONS = 1 << 3;
+    public static final int STATUS = 1 << 4;
+    public static final int ALL = STATS | COMBAT | STORY | ACTIONS | STATUS;
+
+    private int level;
+    private int playerX;
+    private int playerY;
+    private int health;
+    private int gold;
+    private int potions;
+    private int regularKills;
+    private boolean bossKilled;
+    private int moves;
+    private int fireballs;
+    private boolean gameOver;
+    private String errorMessage;
+    private StoryLog storyLog;
+    private long storySequence;
+    private boolean initialized;
+
+    /** Takes the current values and returns the groups that differ from the last call. */
+    public int update(GameState state) {
+        int changed = initialized ? 0 : ALL;
+        initialized = true;
+
+        if (level != state.getCurrentLevel() || playerX != state.getPlayerX() || playerY != state.getPlayerY()
+                || health != state.getPlayerHealth() || gold != state.getPlayerGold()
+                || potions != state.getPlayerHealthPotions()) {
+            level = state.getCurrentLevel();
+            playerX = state.getPlayerX();
+            playerY = state.getPlayerY();
+            health = state.getPlayerHealth();
+            gold = state.getPlayerGold();
+            potions = state.getPlayerHealthPotions();
+            changed |= STATS;
+        }
+
+        if (regularKills != state.getRegularEnemyKills() || bossKilled != state.isBossKilled()) {
+            regularKills = state.getRegularEnemyKills();
+            bossKilled = state.isBossKilled();
+            changed |= COMBAT;
+        }
+
+        DungeonMap map = state.getDungeonMap();
+        int currentMoves = map != null ? map.getActionCount("move") : 0;
+        int currentFireballs = map != null ? map.getActionCount("fireball") : 0;
+        if (moves != currentMoves || fireballs != currentFireballs) {
+            moves = currentMoves;
+            fireballs = currentFireballs;
+            changed |= ACTIONS;
+        }
+
+        if (gameOver != state.isGameOver() || !sameMessage(errorMessage, state.getErrorMessage())) {
+            gameOver = state.isGameOver();
+            errorMessage = state.getErrorMessage();
+            changed |= STATUS;
+        }
+
+        // The log only grows, so a new sequence number is the only way the story can change
+        StoryTeller storyTeller = state.getStoryTeller();
+        StoryLog log = storyTeller != null ? storyTeller.getStoryLog() : null;
+        long sequence = log != null ? log.getNextSequence() : 0;
+        if (log != storyLog || sequence != storySequence) {
+            storyLog = log;
+            storySequence = sequence;
+            changed |= STORY;
+        }
+        return changed;
+    }
+
+    /** Forces the next {@link #update} to report everything as changed. */
+    public void invalidate() {
+        initialized = false;
+    }
+
+    private static boolean sameMessage(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    public int getLevel() { return level; }
+    public int getPlayerX() { return playerX; }
+    public int getPlayerY() { return playerY; }
+    public int getHealth() { return health; }
+    public int getGold() { return gold; }
+    public int getPotions() { return potions; }
+    public int getRegularKills() { return regularKills; }
+    public boolean isBossKilled() { return bossKilled; }
+    public int getMoves() { return moves; }
+    public int getFireballs() { return fireballs; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean isVictory() { return gameOver && health > 0; }
+    public String getErrorMessage() { return errorMessage; }
+    /** The story log of the current level, or null; entries are read from it directly. */
+    public StoryLog getStoryLog() { return storyLog; }
+}
@@ -0,0 +1,228 @@
+package DungeonCrawler;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws the journal sidebar. The parts that never change (background,
+ * headings, controls legend) are drawn once into a cached image; the values
+ * come from a {@link SidebarModel}, and the canvas is only touched when the
+ * model reports a change or the canvas is resized. Story fragments are
+ * wrapped once per distinct text and the wrapped lines reused.
+ */
+public class SidebarView {
+    private static final Font HEADER_FONT = Font.font("Courier New", FontWeight.BOLD, 20);
+    private static final Font SECTION_FONT = Font.font("Courier New", FontWeight.BOLD, 16);
+    private static final Font TEXT_FONT = Font.font("Courier New", FontWeight.NORMAL, 14);
+    private static final Font BANNER_FONT = Font.font("Courier New", FontWeight.BOLD, 24);
+    private static final int STORY_TOP = 365;
+    private static final int LINE_HEIGHT = 20;
+    /** Fragment texts are mostly fixed phrases; this only guards against unbounded growth. */
+    private static final int MAX_WRAPPED_FRAGMENTS = 256;
+
+    private final Canvas canvas;
+    private final SidebarModel model = new SidebarModel();
+    private final Map<String, String[]> wrappedFragments = new HashMap<>();
+    private final List<String> storyLines = new ArrayList<>();
+    private final List<Color> storyColors = new ArrayList<>();
+    private WritableImage chrome;
+    private double chromeWidth;
+    private double chromeHeight;
+
+    public SidebarView(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /** Redraws the sidebar if anything shown on it changed; returns whether it did. */
+    public boolean render(GameState state) {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+
+        int changed = model.update(state);
+        if (chrome == null || width != chromeWidth || height != chromeHeight) {
+            if (width != chromeWidth) {
+                wrappedFragments.clear();
+            }
+            buildChrome(width, height);
+            changed = SidebarModel.ALL;
+        }
+        if (changed == 0) {
+            return false;
+        }
+        if ((changed & SidebarModel.STORY) != 0) {
+            layoutStory(width, height);
+        }
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.drawImage(chrome, 0, 0);
+        drawValues(gc, width, height);
+        return true;
+    }
+
+    /** Forces a full redraw on the next {@link #render}. */
+    public void invalidate() {
+        model.invalidate();
+    }
+
+    private void buildChrome(double width, double height) {
+        Canvas scratch = new Canvas(width, height);
+        GraphicsContext gc = scratch.getGraphicsContext2D();
+
+        gc.setFill(Color.rgb(20, 20, 30));
+        gc.fillRect(0, 0, width, height);
+
+        gc.setFont(HEADER_FONT);
+        gc.setFill(Color.GOLD);
+        gc.fillText("DUNGEON JOURNAL", 25, 40);
+        gc.setStroke(Color.GOLD);
+        gc.strokeLine(25, 45, width - 25, 45);
+
+        gc.setFont(SECTION_FONT);
+        gc.setFill(Color.CYAN);
+        gc.fillText("PLAYER STATS", 25, 70);
+        gc.fillText("COMBAT LOG", 25, 240);
+        gc.fillText("STORY EVENTS", 25, 335);
+        gc.fillText("ACTIONS", 25, height - 120);
+
+        gc.setFill(Color.LIMEGREEN);
+        gc.fillText("CONTROLS", 25, height - 45);
+        gc.setFont(TEXT_FONT);
+        gc.setFill(Color.WHITE);
+        gc.fillText("WASD/Arrow: Move  Space: Fireball  H: Potion  E: Go Down  O/Shift+O: Save  L: Load", 35, height - 25);
+
+        chrome = scratch.snapshot(new SnapshotParameters(), null);
+        chromeWidth = width;
+        chromeHeight = height;
+    }
+
+    private void drawValues(GraphicsContext gc, double width, double height) {
+        gc.setFont(TEXT_FONT);
+        gc.setFill(Color.WHITE);
+        gc.fillText("Level: " + model.getLevel(), 35, 100);
+        gc.fillText("Position: (" + model.getPlayerX() + "," + model.getPlayerY() + ")", 35, 125);
+        gc.fillText("Health: " + model.getHealth(), 35, 150);
+        gc.setFill(Color.GOLD);
+        gc.fillText("Gold: " + model.getGold(), 35, 175);
+        gc.setFill(Color.RED.brighter());
+        gc.fillText("Potions: " + model.getPotions(), 35, 200);
+
+        gc.setFill(Color.WHITE);
+        gc.fillText("Enemies Killed: " + model.getRegularKills(), 35, 270);
+        gc.fillText("Bosses Killed: " + (model.isBossKilled() ? "Yes" : "No"), 35, 295);
+
+        int yPos = STORY_TOP;
+        for (int i = 0; i < storyLines.size(); i++) {
+            gc.setFill(storyColors.get(i));
+            gc.fillText(storyLines.get(i), 35, yPos);
+            yPos += LINE_HEIGHT;
+        }
+
+        gc.setFill(Color.WHITE);
+        gc.fillText("Moves: " + model.getMoves(), 35, height - 95);
+        gc.fillText("Fireballs: " + model.getFireballs(), 35, height - 70);
+
+        if (model.isGameOver()) {
+            gc.setFill(Color.RED);
+            gc.setFont(BANNER_FONT);
+            if (model.isVictory()) {
+                gc.fillText("VICTORY!", width/2 - 50, height/2);
+            } else {
+                gc.fillText("GAME OVER", width/2 - 70, height/2);
+            }
+
+            gc.setFont(SECTION_FONT);
+            gc.setFill(Color.CYAN);
+            gc.fillText("OPTIONS", 25, height/2 + 30);
+
+            gc.setFont(TEXT_FONT);
+            gc.setFill(Color.WHITE);
+            gc.fillText("R: Restart Level", 35, height/2 + 55);
+            gc.fillText("N: New Game", 35, height/2 + 80);
+            gc.fillText("Q: Quit Game", 35, height/2 + 105);
+        }
+
+        String errorMessage = model.getErrorMessage();
+        if (errorMessage != null) {
+            gc.setFill(Color.RED);
+            gc.setFont(SECTION_FONT);
+            gc.fillText(errorMessage, 25, height/2 + 135);
+        }
+    }
+
+    /**
+     * Picks the wrapped lines of the newest fragments that fit above the
+     * actions section: walks back from the newest fragment until the line
+     * budget is used, then lays that range out oldest first.
+     */
+    private void layoutStory(double width, double height) {
+        storyLines.clear();
+        storyColors.clear();
+        StoryLog log = model.getStoryLog();
+        if (log == null || log.isEmpty()) {
+            return;
+        }
+        int maxLines = (int)(height - STORY_TOP - 150) / LINE_HEIGHT;
+        if (maxLines <= 0) {
+            return;
+        }
+        long newest = log.getNextSequence();
+        long first = newest - 1;
+        int lines = wrap(log.get(first), width).length;
+        while (first > log.getOldestSequence()) {
+            int more = wrap(log.get(first - 1), width).length;
+            if (lines + more > maxLines) break;
+            lines += more;
+            first--;
+        }
+        for (long sequence = first; sequence < newest; sequence++) {
+            Color color = sequence >= newest - 3 ? Color.LIGHTYELLOW : Color.LIGHTGRAY;
+            for (String line : wrap(log.get(sequence), width)) {
+                // Only a single fragment longer than the panel can run over
+                if (storyLines.size() == maxLines) return;
+                storyLines.add(line);
+                storyColors.add(color);
+            }
+        }
+    }
+
+    private String[] wrap(String fragment, double width) {
+        String[] lines = wrappedFragments.get(fragment);
+        if (lines != null) {
+            return lines;
+        }
+        if (wrappedFragments.size() >= MAX_WRAPPED_FRAGMENTS) {
+            wrappedFragments.clear();
+        }
+
+        // Same rule as before: a monospace estimate of font size per character
+        double limit = width - 50;
+        double charWidth = TEXT_FONT.getSize();
+        List<String> wrapped = new ArrayList<>();
+        StringBuilder line = new StringBuilder("> ");
+        for (String word : fragment.split(" ")) {
+            if (charWidth * (line.length() + word.length()) < limit) {
+                line.append(word).append(" ");
+            } else {
+                wrapped.add(line.toString());
+                line = new StringBuilder("  ").append(word).append(" ");
+            }
+        }
+        wrapped.add(line.toString());
+        lines = wrapped.toArray(new String[0]);
+        wrappedFragments.put(fragment, lines);
+        return lines;
+    }
+}
@@ -0,0 +1,74 @@
+package DungeonCrawler;
+
+/**
+ * A fixed-capacity log of story lines. Every entry gets the next sequence
+ * number; once the log is full the oldest entry is overwritten, so memory
+ * stays constant however long a session runs. Readers address entries by
+ * sequence number and read them in place, e.g. the newest {@code k}:
+ *
+ * <pre>
+ * for (long s = log.sequenceOfLast(k); s &lt; log.getNextSequence(); s++) {
+ *     draw(log.get(s));
+ * }
+ * </pre>
+ *
+ * or everything since a sequence a reader saw before, starting at
+ * {@link #firstSequenceAfter}. Not thread-safe; the log belongs to the
+ * thread running the game.
+ */
+public class StoryLog {
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final String[] entries;
+    private long nextSequence;
+
+    public StoryLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StoryLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.entries = new String[capacity];
+    }
+
+    /** Adds an entry, evicting the oldest if full, and returns its sequence number. */
+    public long append(String entry) {
+        long sequence = nextSequence++;
+        entries[(int) (sequence % entries.length)] = entry;
+        return sequence;
+    }
+
+    /** The entry with the given sequence number, which must still be in the log. */
+    public String get(long sequence) {
+        if (sequence < getOldestSequence() || sequence >= nextSequence) {
+            throw new IndexOutOfBoundsException("Sequence " + sequence + " not in log [" +
+                    getOldestSequence() + ", " + nextSequence + ")");
+        }
+        return entries[(int) (sequence % entries.length)];
+    }
+
+    public int size() { return (int) Math.min(nextSequence, entries.length); }
+    public int capacity() { return entries.length; }
+    public boolean isEmpty() { return nextSequence == 0; }
+
+    /** The sequence number the next entry will get; one past the newest entry. */
+    public long getNextSequence() { return nextSequence; }
+
+    /** The sequence number of the oldest entry still held. */
+    public long getOldestSequence() { return nextSequence - size(); }
+
+    /** Where to start reading the newest {@code count} entries (fewer if the log holds fewer). */
+    public long sequenceOfLast(int count) {
+        return Math.max(getOldestSequence(), nextSequence - Math.max(0, count));
+    }
+
+    /**
+     * Where to start reading entries newer than {@code sequence}. If some of
+     * them were already evicted this is the oldest entry still held.
+     */
+    public long firstSequenceAfter(long sequence) {
+        return Math.max(getOldestSequence(), sequence + 1);
+    }
+}
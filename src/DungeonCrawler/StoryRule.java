@@ -0,0 +1,68 @@
+package DungeonCrawler;
+
+/**
+ * One line of story and the condition that tells it. Rules are plain data;
+ * {@link StoryRuleBook} indexes them and {@link StoryTeller} fires them.
+ */
+public class StoryRule {
+    private final StoryTrigger trigger;
+    private final String action;
+    private final TileType tileType;
+    private final long threshold;
+    private final String text;
+
+    private StoryRule(StoryTrigger trigger, String action, TileType tileType, long threshold, String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Story rule text cannot be null");
+        }
+        this.trigger = trigger;
+        this.action = action;
+        this.tileType = tileType;
+        this.threshold = threshold;
+        this.text = text;
+    }
+
+    /** Told once the level's count of {@code action} exceeds {@code count}. */
+    public static StoryRule afterActions(String action, int count, String text) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        return new StoryRule(StoryTrigger.ACTION_RECORDED, action, null, count, text);
+    }
+
+    /** Told whenever the player steps onto a {@code type} tile from a tile of another type. */
+    public static StoryRule onEnter(TileType type, String text) {
+        if (type == null) {
+            throw new IllegalArgumentException("Tile type cannot be null");
+        }
+        return new StoryRule(StoryTrigger.TILE_ENTERED, null, type, 0, text);
+    }
+
+    /** Told when the player has stood on one {@code type} tile for more than {@code millis}. */
+    public static StoryRule afterDwell(TileType type, long millis, String text) {
+        if (type == null) {
+            throw new IllegalArgumentException("Tile type cannot be null");
+        }
+        return new StoryRule(StoryTrigger.TIMER_ELAPSED, null, type, millis, text);
+    }
+
+    /** Told when no action has been recorded for more than {@code millis}. */
+    public static StoryRule afterIdle(long millis, String text) {
+        return new StoryRule(StoryTrigger.TIMER_ELAPSED, null, null, millis, text);
+    }
+
+    public StoryTrigger getTrigger() { return trigger; }
+    /** The counted action for {@link StoryTrigger#ACTION_RECORDED} rules, otherwise null. */
+    public String getAction() { return action; }
+    /** The tile type entered or stood on; null for action and idle rules. */
+    public TileType getTileType() { return tileType; }
+    /** The action count to exceed, or the delay in milliseconds for timers. */
+    public long getThreshold() { return threshold; }
+    public String getText() { return text; }
+
+    @Override
+    public String toString() {
+        return trigger + (action != null ? " " + action : "") + (tileType != null ? " " + tileType : "") +
+                " " + threshold + ": " + text;
+    }
+}
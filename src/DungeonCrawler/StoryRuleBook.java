@@ -0,0 +1,162 @@
+package DungeonCrawler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable set of {@link StoryRule}s, indexed by what they wait for:
+ * action rules by action name, enter and dwell rules by tile type, and
+ * every list sorted by threshold. A {@link StoryTeller} can then keep one
+ * cursor per list and only ever look at the next rule that could fire, so
+ * the cost of an event does not grow with the number of rules.
+ *
+ * Rules can be written one per line:
+ * <pre>
+ * # comment
+ * action fireball 10 The air crackles with the power of your fireballs...
+ * enter DOOR The door creaks ominously as you approach...
+ * dwell ROOM 5000 This room feels... familiar.
+ * idle 10000 The dungeon whispers to you... 'Why do you hesitate?'
+ * </pre>
+ */
+public class StoryRuleBook {
+    private static final StoryRule[] NO_RULES = new StoryRule[0];
+    private static final Comparator<StoryRule> BY_THRESHOLD = Comparator.comparingLong(StoryRule::getThreshold);
+
+    /** The game's built-in lines. */
+    public static final StoryRuleBook DEFAULT = new StoryRuleBook(List.of(
+            StoryRule.afterDwell(TileType.ROOM, 5000,
+                    "This room feels... familiar. Like you've been here before in another life."),
+            StoryRule.onEnter(TileType.DOOR, "The door creaks ominously as you approach..."),
+            StoryRule.afterActions("kill", 10, "The dungeon seems to recoil at your violence..."),
+            StoryRule.afterActions("damage", 5, "Your wounds ache as the dungeon's malice grows..."),
+            StoryRule.afterActions("fireball", 10, "The air crackles with the power of your fireballs..."),
+            StoryRule.afterIdle(10000, "The dungeon whispers to you... 'Why do you hesitate?'")));
+
+    private final int ruleCount;
+    private final Map<String, StoryRule[]> actionRules = new HashMap<>();
+    private final StoryRule[][] enterRules = new StoryRule[TileType.values().length][];
+    private final StoryRule[][] dwellRules = new StoryRule[TileType.values().length][];
+    private final StoryRule[] idleRules;
+
+    public StoryRuleBook(Collection<StoryRule> rules) {
+        Map<String, List<StoryRule>> byAction = new HashMap<>();
+        List<List<StoryRule>> byEnter = new ArrayList<>();
+        List<List<StoryRule>> byDwell = new ArrayList<>();
+        for (int i = 0; i < enterRules.length; i++) {
+            byEnter.add(new ArrayList<>());
+            byDwell.add(new ArrayList<>());
+        }
+        List<StoryRule> idle = new ArrayList<>();
+
+        for (StoryRule rule : rules) {
+            switch (rule.getTrigger()) {
+                case ACTION_RECORDED:
+                    byAction.computeIfAbsent(rule.getAction(), k -> new ArrayList<>()).add(rule);
+                    break;
+                case TILE_ENTERED:
+                    byEnter.get(rule.getTileType().ordinal()).add(rule);
+                    break;
+                case TIMER_ELAPSED:
+                    if (rule.getTileType() != null) {
+                        byDwell.get(rule.getTileType().ordinal()).add(rule);
+                    } else {
+                        idle.add(rule);
+                    }
+                    break;
+            }
+        }
+
+        for (Map.Entry<String, List<StoryRule>> entry : byAction.entrySet()) {
+            actionRules.put(entry.getKey(), sorted(entry.getValue()));
+        }
+        for (int i = 0; i < enterRules.length; i++) {
+            enterRules[i] = sorted(byEnter.get(i));
+            dwellRules[i] = sorted(byDwell.get(i));
+        }
+        idleRules = sorted(idle);
+        ruleCount = rules.size();
+    }
+
+    private static StoryRule[] sorted(List<StoryRule> rules) {
+        if (rules.isEmpty()) return NO_RULES;
+        StoryRule[] array = rules.toArray(NO_RULES);
+        // Stable, so rules with equal thresholds are told in the order given
+        Arrays.sort(array, BY_THRESHOLD);
+        return array;
+    }
+
+    /** Rules on {@code action}'s count, by ascending threshold. */
+    public StoryRule[] getActionRules(String action) {
+        return actionRules.getOrDefault(action, NO_RULES);
+    }
+
+    public StoryRule[] getEnterRules(TileType type) {
+        return enterRules[type.ordinal()];
+    }
+
+    /** Dwell rules for {@code type}, by ascending delay. */
+    public StoryRule[] getDwellRules(TileType type) {
+        return dwellRules[type.ordinal()];
+    }
+
+    /** Idle rules, by ascending delay. */
+    public StoryRule[] getIdleRules() {
+        return idleRules;
+    }
+
+    public int size() {
+        return ruleCount;
+    }
+
+    /** Reads rules in the line format above; blank lines and {@code #} comments are skipped. */
+    public static StoryRuleBook parse(BufferedReader reader) throws IOException {
+        List<StoryRule> rules = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                rules.add(parseRule(line));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Bad story rule on line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return new StoryRuleBook(rules);
+    }
+
+    private static StoryRule parseRule(String line) {
+        String[] parts = line.split("\\s+", 2);
+        String kind = parts[0];
+        String rest = parts.length > 1 ? parts[1] : "";
+        switch (kind) {
+            case "action": {
+                String[] fields = rest.split("\\s+", 3);
+                return StoryRule.afterActions(fields[0], Integer.parseInt(fields[1]), fields[2]);
+            }
+            case "enter": {
+                String[] fields = rest.split("\\s+", 2);
+                return StoryRule.onEnter(TileType.valueOf(fields[0]), fields[1]);
+            }
+            case "dwell": {
+                String[] fields = rest.split("\\s+", 3);
+                return StoryRule.afterDwell(TileType.valueOf(fields[0]), Long.parseLong(fields[1]), fields[2]);
+            }
+            case "idle": {
+                String[] fields = rest.split("\\s+", 2);
+                return StoryRule.afterIdle(Long.parseLong(fields[0]), fields[1]);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown rule kind '" + kind + "'");
+        }
+    }
+}
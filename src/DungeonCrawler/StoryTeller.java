@@ -1,157 +1,168 @@
 package DungeonCrawler;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells the story of one level by firing the rules of a
+ * {@link StoryRuleBook} as the engine reports what happens. Each rule list
+ * has a cursor to the next rule that could fire, so an event only looks at
+ * the rules waiting on it. Timed rules are not polled: entering a tile or
+ * recording an action sets the next deadline, and {@link #tick} returns
+ * straight away until it is reached.
+ */
 public class StoryTeller {
     private DungeonMap dungeonMap;
-    private List<String> storyFragments;
+    private final StoryRuleBook rules;
+    private final StoryLog storyLog = new StoryLog();
+    // How many of each action's rules have fired; counts only grow within a level
+    private final Map<String, int[]> actionCursors = new HashMap<>();
+    private TileType currentTileType;
+    private StoryRule[] dwellRules = new StoryRule[0];
+    private int dwellCursor;
+    private long dwellSince;
+    private int idleCursor;
+    private long idleSince;
+    private boolean clockStarted;
+    private long nextDeadline = Long.MAX_VALUE;
 
     public StoryTeller(DungeonMap dungeonMap) {
+        this(dungeonMap, StoryRuleBook.DEFAULT);
+    }
+
+    public StoryTeller(DungeonMap dungeonMap, StoryRuleBook rules) {
+        this.rules = rules != null ? rules : StoryRuleBook.DEFAULT;
         try {
             if (dungeonMap == null) {
                 throw new IllegalArgumentException("DungeonMap cannot be null");
             }
             this.dungeonMap = dungeonMap;
-            this.storyFragments = new ArrayList<>();
         } catch (IllegalArgumentException e) {
             System.err.println("Error creating StoryTeller: " + e.getMessage());
             this.dungeonMap = null;
-            this.storyFragments = new ArrayList<>();
+            storyLog.append("Error: Dungeon map not loaded!");
         }
     }
 
-    public void update(int playerX, int playerY) {
+    /** The player stepped onto (x, y), or was placed there at the start of a level or a load. */
+    public void onTileEntered(int x, int y, long now) {
+        if (dungeonMap == null) return;
         try {
-            if (storyFragments == null) {
-                storyFragments = new ArrayList<>();
+            startClock(now);
+            TileType type = dungeonMap.getTileType(x, y);
+            if (type != currentTileType) {
+                for (StoryRule rule : rules.getEnterRules(type)) {
+                    storyLog.append(rule.getText());
+                }
             }
-            storyFragments.clear();
-
-            if (dungeonMap == null) {
-                storyFragments.add("Error: Dungeon map not loaded!");
-                return;
-            }
-
-            checkRoomStories(playerX, playerY);
-            checkActionStories();
-            checkIdleStories();
+            currentTileType = type;
+            // Every step lands on a freshly visited tile, so dwell timers restart
+            dwellRules = rules.getDwellRules(type);
+            dwellCursor = 0;
+            dwellSince = now;
+            scheduleNextDeadline();
         } catch (Exception e) {
-            System.err.println("Error updating story: " + e.getMessage());
-            storyFragments.add("Error generating story!");
+            System.err.println("Error checking room stories: " + e.getMessage());
         }
     }
 
-    private void checkRoomStories(int x, int y) {
+    /** An action was just counted on the map. */
+    public void onAction(String action, long now) {
+        if (dungeonMap == null) return;
         try {
-            long visitTime = dungeonMap.getRoomVisitTime(x, y);
-            long timeInRoom = System.currentTimeMillis() - visitTime;
-
-            if (timeInRoom > 5000 && dungeonMap.getTileType(x, y) == TileType.ROOM) {
-                storyFragments.add("This room feels... familiar. Like you've been here before in another life.");
-            }
-
-            if (dungeonMap.getTileType(x, y) == TileType.DOOR) {
-                storyFragments.add("The door creaks ominously as you approach...");
+            startClock(now);
+            StoryRule[] actionRules = rules.getActionRules(action);
+            if (actionRules.length > 0) {
+                int[] cursor = actionCursors.computeIfAbsent(action, k -> new int[1]);
+                int count = dungeonMap.getActionCount(action);
+                while (cursor[0] < actionRules.length && count > actionRules[cursor[0]].getThreshold()) {
+                    storyLog.append(actionRules[cursor[0]++].getText());
+                }
             }
+            idleCursor = 0;
+            idleSince = now;
+            scheduleNextDeadline();
         } catch (Exception e) {
-            System.err.println("Error checking room stories: " + e.getMessage());
+            System.err.println("Error checking action stories: " + e.getMessage());
         }
     }
 
-    private void checkActionStories() {
+    /** Fires any timed rules whose delay has passed; cheap when none are due. */
+    public void tick(long now) {
+        if (now < nextDeadline) return;
         try {
-            int kills = dungeonMap.getActionCount("kill");
-            if (kills > 10) {
-                storyFragments.add("The dungeon seems to recoil at your violence...");
+            while (dwellCursor < dwellRules.length && now - dwellSince > dwellRules[dwellCursor].getThreshold()) {
+                storyLog.append(dwellRules[dwellCursor++].getText());
             }
-
-            int damages = dungeonMap.getActionCount("damage");
-            if (damages > 5) {
-                storyFragments.add("Your wounds ache as the dungeon's malice grows...");
-            }
-
-            int fireballs = dungeonMap.getActionCount("fireball");
-            if (fireballs > 10) {
-                storyFragments.add("The air crackles with the power of your fireballs...");
+            StoryRule[] idleRules = rules.getIdleRules();
+            while (idleCursor < idleRules.length && now - idleSince > idleRules[idleCursor].getThreshold()) {
+                storyLog.append(idleRules[idleCursor++].getText());
             }
+            scheduleNextDeadline();
         } catch (Exception e) {
-            System.err.println("Error checking action stories: " + e.getMessage());
+            System.err.println("Error checking idle stories: " + e.getMessage());
+            storyLog.append("Error generating story!");
         }
     }
 
-    private void checkIdleStories() {
-        try {
-            long timeSinceLastAction = System.currentTimeMillis() - dungeonMap.getLastActionTime();
-            if (timeSinceLastAction > 10000) {
-                storyFragments.add("The dungeon whispers to you... 'Why do you hesitate?'");
-            }
-        } catch (Exception e) {
-            System.err.println("Error checking idle stories: " + e.getMessage());
+    /** When {@link #tick} next has something to do; {@code Long.MAX_VALUE} if nothing is pending. */
+    public long getNextDeadline() {
+        return nextDeadline;
+    }
+
+    /** Idle time counts from the first thing that happens on the level. */
+    private void startClock(long now) {
+        if (!clockStarted) {
+            clockStarted = true;
+            idleSince = now;
+        }
+    }
+
+    private void scheduleNextDeadline() {
+        long deadline = Long.MAX_VALUE;
+        if (dwellCursor < dwellRules.length) {
+            deadline = dwellSince + dwellRules[dwellCursor].getThreshold() + 1;
         }
+        StoryRule[] idleRules = rules.getIdleRules();
+        if (clockStarted && idleCursor < idleRules.length) {
+            deadline = Math.min(deadline, idleSince + idleRules[idleCursor].getThreshold() + 1);
+        }
+        nextDeadline = deadline;
     }
 
     public void addKillStory(boolean isBoss) {
-        try {
-            if (storyFragments == null) {
-                storyFragments = new ArrayList<>();
-            }
-            if (isBoss) {
-                storyFragments.add("The mighty boss falls, its power broken by your flames!");
-            } else {
-                storyFragments.add("An enemy is consumed by your fireball, reduced to ash.");
-            }
-        } catch (Exception e) {
-            System.err.println("Error adding kill story: " + e.getMessage());
+        if (isBoss) {
+            storyLog.append("The mighty boss falls, its power broken by your flames!");
+        } else {
+            storyLog.append("An enemy is consumed by your fireball, reduced to ash.");
         }
     }
 
     public void addKeyStory() {
-        try {
-            if (storyFragments == null) {
-                storyFragments = new ArrayList<>();
-            }
-            storyFragments.add("With the enemies vanquished, a golden key materializes!");
-        } catch (Exception e) {
-            System.err.println("Error adding key story: " + e.getMessage());
-        }
+        storyLog.append("With the enemies vanquished, a golden key materializes!");
     }
 
-    public List<String> getCurrentStoryFragments() {
-        try {
-            if (storyFragments == null) {
-                return new ArrayList<>();
-            }
-            return new ArrayList<>(storyFragments);
-        } catch (Exception e) {
-            System.err.println("Error getting story fragments: " + e.getMessage());
-            return new ArrayList<>();
-        }
+    /** The story so far, newest last; read entries in place rather than copying them. */
+    public StoryLog getStoryLog() {
+        return storyLog;
     }
+
     public void addStoryFragment(String fragment) {
         try {
-            if (storyFragments == null) {
-                storyFragments = new ArrayList<>();
+            if (fragment == null) {
+                throw new IllegalArgumentException("Story fragment cannot be null");
             }
-            storyFragments.add(fragment);
-        } catch (Exception e) {
+            storyLog.append(fragment);
+        } catch (IllegalArgumentException e) {
             System.err.println("Error adding story fragment: " + e.getMessage());
         }
     }
- // Add these methods to StoryTeller class
+
     public void addGoldStory(int amount) {
-        try {
-            storyFragments.add("Collected " + amount + " gold!");
-        } catch (Exception e) {
-            System.err.println("Error adding gold story: " + e.getMessage());
-        }
+        storyLog.append("Collected " + amount + " gold!");
     }
 
     public void addPotionStory() {
-        try {
-            storyFragments.add("Found a health potion!");
-        } catch (Exception e) {
-            System.err.println("Error adding potion story: " + e.getMessage());
-        }
+        storyLog.append("Found a health potion!");
     }
-}
\ No newline at end of file
+}
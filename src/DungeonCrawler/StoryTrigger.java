@@ -0,0 +1,15 @@
+package DungeonCrawler;
+
+/**
+ * What a {@link StoryRule} listens for. Each kind is indexed separately in
+ * a {@link StoryRuleBook}, so an event only looks at the rules that can
+ * react to it.
+ */
+public enum StoryTrigger {
+    /** An action count (move, damage, fireball...) went past a threshold. */
+    ACTION_RECORDED,
+    /** The player stepped onto a tile of some type from one of another type. */
+    TILE_ENTERED,
+    /** A delay passed: standing on one tile (dwell), or since the last action (idle). */
+    TIMER_ELAPSED
+}
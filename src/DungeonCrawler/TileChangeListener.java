@@ -0,0 +1,9 @@
+package DungeonCrawler;
+
+/**
+ * Told when a single tile of a {@link DungeonMap} changes how it looks: its
+ * type was replaced or it was explored for the first time.
+ */
+public interface TileChangeListener {
+    void onTileChanged(int x, int y);
+}
@@ -0,0 +1,178 @@
+package DungeonCrawler;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * The map's static tiles, pre-rendered offscreen. Each tile look (type,
+ * explored or not, and whether the level door is open) is drawn once into a
+ * stamp; the whole map is then stamped into images once per level and kept
+ * current by re-stamping single tiles as the map reports changes. A frame
+ * costs one {@code drawImage} per image touching the viewport, however many
+ * tiles are visible.
+ *
+ * Maps are split into images of at most {@link #CHUNK_TILES} tiles a side so
+ * very large levels do not need a single enormous texture; the default map
+ * fits in one.
+ */
+public class TileLayer implements TileChangeListener {
+    static final int CHUNK_TILES = 64;
+    private static final TileType[] TILE_TYPES = TileType.values();
+
+    private final int tileSize;
+    private final Image doorImage;
+    private final Image levelDoorImage;
+    // [ordinal][explored]; the open level door has its own pair
+    private WritableImage[][] stamps;
+    private WritableImage[] openDoorStamps;
+    private DungeonMap map;
+    private boolean doorOpen;
+    private WritableImage[] chunks;
+    private int chunksX;
+    private int chunksY;
+
+    public TileLayer(int tileSize, Image doorImage, Image levelDoorImage) {
+        this.tileSize = tileSize;
+        this.doorImage = doorImage;
+        this.levelDoorImage = levelDoorImage;
+    }
+
+    /**
+     * Draws the layer with the map's tile (0, 0) at the given canvas
+     * position, rebuilding it first if the map or the door state changed.
+     */
+    public void render(GraphicsContext gc, DungeonMap current, boolean levelDoorOpen,
+                       double originX, double originY, double viewWidth, double viewHeight) {
+        if (stamps == null) {
+            buildStamps();
+        }
+        if (current != map || levelDoorOpen != doorOpen) {
+            rebuild(current, levelDoorOpen);
+        }
+        int chunkPixels = CHUNK_TILES * tileSize;
+        for (int cx = 0; cx < chunksX; cx++) {
+            double left = originX + cx * chunkPixels;
+            if (left >= viewWidth || left + chunkPixels <= 0) continue;
+            for (int cy = 0; cy < chunksY; cy++) {
+                double top = originY + cy * chunkPixels;
+                if (top >= viewHeight || top + chunkPixels <= 0) continue;
+                gc.drawImage(chunks[cx * chunksY + cy], left, top);
+            }
+        }
+    }
+
+    @Override
+    public void onTileChanged(int x, int y) {
+        if (chunks != null) {
+            stampTile(x, y);
+        }
+    }
+
+    /** Stops listening to the current map. */
+    public void detach() {
+        if (map != null) {
+            map.removeTileChangeListener(this);
+        }
+        map = null;
+        chunks = null;
+    }
+
+    private void rebuild(DungeonMap current, boolean levelDoorOpen) {
+        detach();
+        map = current;
+        doorOpen = levelDoorOpen;
+        int width = map.getWidth();
+        int height = map.getHeight();
+        chunksX = (width + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunksY = (height + CHUNK_TILES - 1) / CHUNK_TILES;
+        chunks = new WritableImage[chunksX * chunksY];
+        for (int cx = 0; cx < chunksX; cx++) {
+            for (int cy = 0; cy < chunksY; cy++) {
+                int tilesX = Math.min(CHUNK_TILES, width - cx * CHUNK_TILES);
+                int tilesY = Math.min(CHUNK_TILES, height - cy * CHUNK_TILES);
+                chunks[cx * chunksY + cy] = new WritableImage(tilesX * tileSize, tilesY * tileSize);
+            }
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                stampTile(x, y);
+            }
+        }
+        map.addTileChangeListener(this);
+    }
+
+    private void stampTile(int x, int y) {
+        TileType type = map.getTileType(x, y);
+        int explored = map.isExplored(x, y) ? 1 : 0;
+        WritableImage stamp = type == TileType.LEVEL_UP_DOOR && doorOpen
+                ? openDoorStamps[explored]
+                : stamps[type.ordinal()][explored];
+        WritableImage chunk = chunks[(x / CHUNK_TILES) * chunksY + y / CHUNK_TILES];
+        chunk.getPixelWriter().setPixels((x % CHUNK_TILES) * tileSize, (y % CHUNK_TILES) * tileSize,
+                tileSize, tileSize, stamp.getPixelReader(), 0, 0);
+    }
+
+    private void buildStamps() {
+        Canvas canvas = new Canvas(tileSize, tileSize);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+
+        stamps = new WritableImage[TILE_TYPES.length][2];
+        openDoorStamps = new WritableImage[2];
+        for (int explored = 0; explored < 2; explored++) {
+            for (TileType type : TILE_TYPES) {
+                drawTile(gc, type, false, explored == 1);
+                stamps[type.ordinal()][explored] = canvas.snapshot(params, null);
+            }
+            drawTile(gc, TileType.LEVEL_UP_DOOR, true, explored == 1);
+            openDoorStamps[explored] = canvas.snapshot(params, null);
+        }
+    }
+
+    private void drawTile(GraphicsContext gc, TileType type, boolean levelDoorOpen, boolean explored) {
+        gc.clearRect(0, 0, tileSize, tileSize);
+        switch (type) {
+            case WALL:
+                gc.setFill(Color.rgb(50, 50, 50));
+                gc.fillRect(0, 0, tileSize, tileSize);
+                break;
+            case FLOOR:
+                gc.setFill(Color.rgb(100, 100, 100));
+                gc.fillRect(0, 0, tileSize, tileSize);
+                break;
+            case ROOM:
+                gc.setFill(Color.rgb(150, 150, 150));
+                gc.fillRect(0, 0, tileSize, tileSize);
+                break;
+            case DOOR:
+                if (doorImage != null) {
+                    gc.drawImage(doorImage, 0, 0, tileSize, tileSize);
+                } else {
+                    gc.setFill(Color.rgb(139, 69, 19));
+                    gc.fillRect(0, 0, tileSize, tileSize);
+                }
+                break;
+            case LEVEL_UP_DOOR:
+                if (levelDoorOpen && levelDoorImage != null) {
+                    gc.drawImage(levelDoorImage, 0, 0, tileSize, tileSize);
+                } else {
+                    gc.setFill(Color.rgb(100, 50, 150));
+                    gc.fillRect(0, 0, tileSize, tileSize);
+                }
+                break;
+        }
+
+        gc.setStroke(Color.rgb(30, 30, 30));
+        gc.strokeRect(0, 0, tileSize, tileSize);
+
+        if (explored) {
+            gc.setFill(Color.rgb(255, 255, 255, 0.1));
+            gc.fillRect(0, 0, tileSize, tileSize);
+        }
+    }
+}